@@ -0,0 +1,38 @@
+package edu.grinnell.csc207.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the block benchmarks. Takes the same arguments as the standard
+ * JMH runner, but always turns on the GC profiler so that each result
+ * also reports how much we allocate.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class Benchmarks {
+  /**
+   * Run the benchmarks.
+   *
+   * @param args
+   *   JMH command-line options, such as a benchmark name pattern.
+   *
+   * @exception Exception
+   *   If JMH cannot parse the options or run the benchmarks.
+   */
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions options = new CommandLineOptions(args);
+    if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+        || options.shouldListResultFormats() || options.shouldListWithParams()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    } // if
+    new Runner(new OptionsBuilder()
+        .parent(options)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  } // main(String[])
+} // class Benchmarks
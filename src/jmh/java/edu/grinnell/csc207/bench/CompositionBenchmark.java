@@ -0,0 +1,125 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full renders of large compositions: deep nesting, wide horizontal
+ * compositions, tall vertical compositions, and big grids.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositionBenchmark {
+  /**
+   * How big to make each composition (depth, number of parts, or
+   * repetitions each way).
+   */
+  @Param({"100", "1000"})
+  public int size;
+
+  /**
+   * Deeply nested boxes and flips.
+   */
+  AsciiBlock deep;
+
+  /**
+   * Many blocks side by side.
+   */
+  AsciiBlock wide;
+
+  /**
+   * Many lines stacked up.
+   */
+  AsciiBlock tall;
+
+  /**
+   * A big grid.
+   */
+  AsciiBlock grid;
+
+  /**
+   * Build the compositions.
+   *
+   * @exception Exception
+   *   If they cannot be built.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.deep = Scenes.deep(this.size);
+    this.wide = Scenes.wide(this.size);
+    this.tall = Scenes.tall(this.size);
+    this.grid = Scenes.bigGrid(this.size);
+  } // setup()
+
+  /**
+   * Render the deep nesting.
+   *
+   * @return the rendered cells.
+   */
+  @Benchmark
+  public char[][] deepNesting() {
+    return AsciiBlock.render(this.deep);
+  } // deepNesting()
+
+  /**
+   * Render the wide composition.
+   *
+   * @return the rendered cells.
+   */
+  @Benchmark
+  public char[][] wideHComp() {
+    return AsciiBlock.render(this.wide);
+  } // wideHComp()
+
+  /**
+   * Render the tall composition.
+   *
+   * @return the rendered cells.
+   */
+  @Benchmark
+  public char[][] tallVComp() {
+    return AsciiBlock.render(this.tall);
+  } // tallVComp()
+
+  /**
+   * Render the tall composition one row at a time.
+   *
+   * @return the last row.
+   */
+  @Benchmark
+  public String tallVCompRows() {
+    String last = "";
+    for (int i = 0; i < this.tall.height(); i++) {
+      last = this.tall.rowUnchecked(i);
+    } // for [i]
+    return last;
+  } // tallVCompRows()
+
+  /**
+   * Render the big grid.
+   *
+   * @return the rendered cells.
+   */
+  @Benchmark
+  public char[][] bigGrid() {
+    return AsciiBlock.render(this.grid);
+  } // bigGrid()
+} // class CompositionBenchmark
@@ -0,0 +1,103 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.HAlignment;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.blocks.VComp;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Structural (eqv) and visual (equal) comparison of two large trees
+ * that were built separately but in the same way.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquivalenceBenchmark {
+  /**
+   * The number of parts in each level of the trees.
+   */
+  @Param({"10", "100"})
+  public int size;
+
+  /**
+   * One tree.
+   */
+  AsciiBlock left;
+
+  /**
+   * The other tree.
+   */
+  AsciiBlock right;
+
+  /**
+   * Build the trees.
+   *
+   * @exception Exception
+   *   If they cannot be built.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.left = tree(this.size);
+    this.right = tree(this.size);
+  } // setup()
+
+  /**
+   * Build a large tree.
+   *
+   * @param size
+   *   The number of parts in each level.
+   *
+   * @return the tree.
+   *
+   * @exception Exception
+   *   If it cannot be built.
+   */
+  static AsciiBlock tree(int size) throws Exception {
+    AsciiBlock[] columns = new AsciiBlock[size];
+    for (int i = 0; i < size; i++) {
+      columns[i] = new Boxed(new VComp(HAlignment.CENTER,
+          Scenes.tall(size), Scenes.deep(i % 8)));
+    } // for [i]
+    return new HComp(VAlignment.TOP, columns);
+  } // tree(int)
+
+  /**
+   * Compare the trees structurally.
+   *
+   * @return whether they are equivalent.
+   */
+  @Benchmark
+  public boolean eqv() {
+    return AsciiBlock.eqv(this.left, this.right);
+  } // eqv()
+
+  /**
+   * Compare the trees by their contents.
+   *
+   * @return whether they are equal.
+   */
+  @Benchmark
+  public boolean equal() {
+    return AsciiBlock.equal(this.left, this.right);
+  } // equal()
+} // class EquivalenceBenchmark
@@ -0,0 +1,89 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.main.Art80x24;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full frames of the Art80x24 pumpkin.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+  /**
+   * The pumpkin.
+   */
+  AsciiBlock art;
+
+  /**
+   * A reusable frame buffer.
+   */
+  char[][] cells;
+
+  /**
+   * Build the pumpkin.
+   *
+   * @exception Exception
+   *   If the pumpkin cannot be built.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.art = Art80x24.pumpkin();
+    this.cells = new char[this.art.height()][this.art.width()];
+  } // setup()
+
+  /**
+   * Build the frame one String row at a time, as print used to.
+   *
+   * @param bh
+   *   Where the rows go.
+   *
+   * @exception Exception
+   *   If a row is missing.
+   */
+  @Benchmark
+  public void rowByRow(Blackhole bh) throws Exception {
+    for (int i = 0; i < this.art.height(); i++) {
+      bh.consume(this.art.row(i));
+    } // for [i]
+  } // rowByRow(Blackhole)
+
+  /**
+   * Render the frame into a fresh grid of cells.
+   *
+   * @return the grid.
+   */
+  @Benchmark
+  public char[][] render() {
+    return AsciiBlock.render(this.art);
+  } // render()
+
+  /**
+   * Render the frame into the same grid of cells every time.
+   *
+   * @return the grid.
+   */
+  @Benchmark
+  public char[][] renderReused() {
+    this.art.renderInto(this.cells, 0, 0);
+    return this.cells;
+  } // renderReused()
+} // class FrameBenchmark
@@ -0,0 +1,71 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering large frames on one thread and on the common fork/join
+ * pool. Run with -jvmArgs -Djava.util.concurrent.ForkJoinPool.common.parallelism=N
+ * to see how rendering scales with the number of threads.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+  /**
+   * What to render: 10,000 short lines, or a grid of 3,000 by 3,000
+   * cells.
+   */
+  @Param({"tall", "grid"})
+  String scene;
+
+  /**
+   * The block to render.
+   */
+  AsciiBlock block;
+
+  /**
+   * Build the block.
+   */
+  @Setup
+  public void setup() {
+    this.block = this.scene.equals("tall") ? Scenes.tall(10000) : Scenes.bigGrid(1000);
+  } // setup()
+
+  /**
+   * Render on this thread.
+   *
+   * @return the grid.
+   */
+  @Benchmark
+  public char[][] sequential() {
+    return AsciiBlock.render(this.block);
+  } // sequential()
+
+  /**
+   * Render on the common pool.
+   *
+   * @return the grid.
+   */
+  @Benchmark
+  public char[][] parallel() {
+    return AsciiBlock.renderParallel(this.block);
+  } // parallel()
+} // class ParallelBenchmark
@@ -0,0 +1,306 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.io.BlockPrinter;
+import edu.grinnell.csc207.io.ChannelRenderer;
+import edu.grinnell.csc207.io.MappedExporter;
+import edu.grinnell.csc207.io.PipelinedPrinter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Printing large blocks to a stream that counts the calls made to it,
+ * as a stand-in for a terminal or file where each call is a syscall.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintBenchmark {
+  /**
+   * What to print: 10,000 short lines, or a grid of 3,000 by 3,000
+   * cells.
+   */
+  @Param({"tall", "grid"})
+  String scene;
+
+  /**
+   * The block to print.
+   */
+  AsciiBlock block;
+
+  /**
+   * The file we export to.
+   */
+  Path file;
+
+  /**
+   * Build the block and pick a file to export to.
+   *
+   * @exception IOException
+   *   If we cannot create the file.
+   */
+  @Setup
+  public void setup() throws IOException {
+    this.block = this.scene.equals("tall") ? Scenes.tall(10000) : Scenes.bigGrid(1000);
+    this.file = Files.createTempFile("blocks", ".txt");
+  } // setup()
+
+  /**
+   * Clean up the file we exported to.
+   *
+   * @exception IOException
+   *   If we cannot remove the file.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  } // tearDown()
+
+  /**
+   * Print with AsciiBlock.print through an autoflushing PrintWriter,
+   * as Art80x24 used to.
+   *
+   * @param bh
+   *   Where the output goes.
+   */
+  @Benchmark
+  public void printWriter(Blackhole bh) {
+    PrintWriter pen = new PrintWriter(new Sink(bh), true);
+    AsciiBlock.print(pen, this.block);
+    pen.flush();
+  } // printWriter(Blackhole)
+
+  /**
+   * Print with a block printer.
+   *
+   * @param bh
+   *   Where the output goes.
+   *
+   * @exception IOException
+   *   Never, since the sink never fails.
+   */
+  @Benchmark
+  public void blockPrinter(Blackhole bh) throws IOException {
+    OutputStream out = new Sink(bh);
+    BlockPrinter printer = new BlockPrinter(out);
+    printer.print(this.block);
+    printer.flush();
+  } // blockPrinter(Blackhole)
+
+  /**
+   * Print with a channel renderer.
+   *
+   * @param bh
+   *   Where the output goes.
+   *
+   * @exception IOException
+   *   Never, since the sink never fails.
+   */
+  @Benchmark
+  public void channelRenderer(Blackhole bh) throws IOException {
+    ChannelRenderer renderer = new ChannelRenderer(new ChannelSink(bh));
+    renderer.print(this.block);
+    renderer.flush();
+  } // channelRenderer(Blackhole)
+
+  /**
+   * Print with a pipelined printer, rendering on other threads while
+   * this one writes.
+   *
+   * @param bh
+   *   Where the output goes.
+   *
+   * @exception IOException
+   *   Never, since the sink never fails.
+   */
+  @Benchmark
+  public void pipelined(Blackhole bh) throws IOException {
+    new PipelinedPrinter(new WriterSink(bh)).print(this.block);
+  } // pipelined(Blackhole)
+
+  /**
+   * Export the block to a file with a block printer.
+   *
+   * @return the number of bytes written.
+   *
+   * @exception IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public long printerExport() throws IOException {
+    try (OutputStream out = Files.newOutputStream(this.file)) {
+      BlockPrinter printer = new BlockPrinter(out);
+      printer.print(this.block);
+      printer.flush();
+      return printer.bytes();
+    } // try
+  } // printerExport()
+
+  /**
+   * Export the block to a file through a channel renderer.
+   *
+   * @return the number of bytes written.
+   *
+   * @exception IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public long channelExport() throws IOException {
+    try (FileChannel out = FileChannel.open(this.file, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ChannelRenderer renderer = new ChannelRenderer(out);
+      renderer.print(this.block);
+      renderer.flush();
+      return renderer.bytes();
+    } // try
+  } // channelExport()
+
+  /**
+   * Export the block to a file through a memory-mapped region.
+   *
+   * @return the number of bytes written.
+   *
+   * @exception IOException
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public long mappedExport() throws IOException {
+    return new MappedExporter().export(this.block, this.file);
+  } // mappedExport()
+
+  /**
+   * A stream that hands everything written to it to a black hole.
+   */
+  static class Sink extends OutputStream {
+    /**
+     * Where the output goes.
+     */
+    Blackhole hole;
+
+    /**
+     * Build a new sink.
+     *
+     * @param bh
+     *   Where the output goes.
+     */
+    Sink(Blackhole bh) {
+      this.hole = bh;
+    } // Sink(Blackhole)
+
+    @Override
+    public void write(int b) {
+      this.hole.consume(b);
+    } // write(int)
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      this.hole.consume(b);
+      this.hole.consume(len);
+    } // write(byte[], int, int)
+
+    @Override
+    public void flush() {
+      this.hole.consume(this);
+    } // flush()
+  } // class Sink
+
+  /**
+   * A channel that hands everything written to it to a black hole.
+   */
+  static class ChannelSink implements WritableByteChannel {
+    /**
+     * Where the output goes.
+     */
+    Blackhole hole;
+
+    /**
+     * Build a new sink.
+     *
+     * @param bh
+     *   Where the output goes.
+     */
+    ChannelSink(Blackhole bh) {
+      this.hole = bh;
+    } // ChannelSink(Blackhole)
+
+    @Override
+    public int write(ByteBuffer src) {
+      int len = src.remaining();
+      this.hole.consume(src.get(src.limit() - 1));
+      src.position(src.limit());
+      return len;
+    } // write(ByteBuffer)
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    } // isOpen()
+
+    @Override
+    public void close() {
+    } // close()
+  } // class ChannelSink
+
+  /**
+   * A writer that hands everything written to it to a black hole.
+   */
+  static class WriterSink extends Writer {
+    /**
+     * Where the output goes.
+     */
+    Blackhole hole;
+
+    /**
+     * Build a new sink.
+     *
+     * @param bh
+     *   Where the output goes.
+     */
+    WriterSink(Blackhole bh) {
+      this.hole = bh;
+    } // WriterSink(Blackhole)
+
+    @Override
+    public void write(char[] buf, int off, int len) {
+      this.hole.consume(buf);
+      this.hole.consume(len);
+    } // write(char[], int, int)
+
+    @Override
+    public void flush() {
+      this.hole.consume(this);
+    } // flush()
+
+    @Override
+    public void close() {
+    } // close()
+  } // class WriterSink
+} // class PrintBenchmark
@@ -0,0 +1,114 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.Connectivity;
+import edu.grinnell.csc207.blocks.LineRasterizer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rasterizing lines. Besides the usual operations per second, the
+ * cells counter reports how many cells per second we rasterize.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterBenchmark {
+  /**
+   * How the cells of each line connect.
+   */
+  @Param({"FOUR", "EIGHT"})
+  public Connectivity connectivity;
+
+  /**
+   * The longest a line may be in either direction.
+   */
+  @Param({"8", "400"})
+  public int length;
+
+  /**
+   * The ends of the lines, as x0, y0, x1, y1, x0, ...
+   */
+  int[] ends;
+
+  /**
+   * Where the cells go.
+   */
+  Blackhole hole;
+
+  /**
+   * Something to plot cells into.
+   */
+  LineRasterizer.Plot plot = (x, y) -> this.hole.consume(x + y);
+
+  /**
+   * Pick the ends of 1024 lines at random, in every direction.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(207);
+    this.ends = new int[4 * 1024];
+    for (int i = 0; i < this.ends.length; i += 2) {
+      this.ends[i] = random.nextInt(this.length + 1);
+      this.ends[i + 1] = random.nextInt(this.length + 1);
+    } // for [i]
+  } // setup()
+
+  /**
+   * The number of cells rasterized, reported per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Cells {
+    /**
+     * The number of cells.
+     */
+    public long cells;
+
+    /**
+     * Start counting again for each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.cells = 0;
+    } // reset()
+  } // class Cells
+
+  /**
+   * Rasterize all of the lines.
+   *
+   * @param counter
+   *   Where to count cells.
+   * @param blackhole
+   *   Where the cells go.
+   */
+  @Benchmark
+  public void lines(Cells counter, Blackhole blackhole) {
+    this.hole = blackhole;
+    long cells = 0;
+    for (int i = 0; i < this.ends.length; i += 4) {
+      cells += LineRasterizer.line(this.ends[i], this.ends[i + 1],
+          this.ends[i + 2], this.ends[i + 3], this.connectivity, this.plot);
+    } // for [i]
+    counter.cells += cells;
+  } // lines(Cells, Blackhole)
+} // class RasterBenchmark
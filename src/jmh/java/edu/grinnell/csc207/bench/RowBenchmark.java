@@ -0,0 +1,103 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Row throughput for each type of block. Each invocation produces every
+ * row of the block once.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowBenchmark {
+  /**
+   * The type of block to measure.
+   */
+  @Param({"line", "lines", "rect", "boxed", "surrounded", "grid", "hcomp", "vcomp",
+          "hflip", "vflip", "trimmed", "padded", "stamp"})
+  public String type;
+
+  /**
+   * The block to measure.
+   */
+  AsciiBlock block;
+
+  /**
+   * A buffer big enough for one row of the block.
+   */
+  char[] buffer;
+
+  /**
+   * Build the block.
+   *
+   * @exception Exception
+   *   If the block cannot be built.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.block = Scenes.ofType(this.type);
+    this.buffer = new char[this.block.width()];
+  } // setup()
+
+  /**
+   * Get every row through the checked accessor.
+   *
+   * @param bh
+   *   Where the rows go.
+   *
+   * @exception Exception
+   *   If a row is missing.
+   */
+  @Benchmark
+  public void row(Blackhole bh) throws Exception {
+    for (int i = 0; i < this.block.height(); i++) {
+      bh.consume(this.block.row(i));
+    } // for [i]
+  } // row(Blackhole)
+
+  /**
+   * Get every row through the unchecked accessor.
+   *
+   * @param bh
+   *   Where the rows go.
+   */
+  @Benchmark
+  public void rowUnchecked(Blackhole bh) {
+    for (int i = 0; i < this.block.height(); i++) {
+      bh.consume(this.block.rowUnchecked(i));
+    } // for [i]
+  } // rowUnchecked(Blackhole)
+
+  /**
+   * Paint every row into one reused buffer.
+   *
+   * @param bh
+   *   Where the buffer goes.
+   */
+  @Benchmark
+  public void renderRow(Blackhole bh) {
+    for (int i = 0; i < this.block.height(); i++) {
+      this.block.renderRow(i, this.buffer, 0);
+    } // for [i]
+    bh.consume(this.buffer);
+  } // renderRow(Blackhole)
+} // class RowBenchmark
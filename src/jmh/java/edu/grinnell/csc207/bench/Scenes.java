@@ -0,0 +1,166 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.BezierCurveStamp;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.HAlignment;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.HFlip;
+import edu.grinnell.csc207.blocks.Line;
+import edu.grinnell.csc207.blocks.Lines;
+import edu.grinnell.csc207.blocks.Padded;
+import edu.grinnell.csc207.blocks.Rect;
+import edu.grinnell.csc207.blocks.Surrounded;
+import edu.grinnell.csc207.blocks.Trimmed;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.blocks.VComp;
+import edu.grinnell.csc207.blocks.VFlip;
+
+/**
+ * Blocks for the benchmarks to chew on.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class Scenes {
+  /**
+   * Build a modest block of one type, wrapped around ordinary content
+   * where the type needs something to wrap.
+   *
+   * @param type
+   *   The name of the block type, in lower case (e.g., "hcomp").
+   *
+   * @return a block of that type.
+   *
+   * @exception Exception
+   *   If the type is unknown.
+   */
+  public static AsciiBlock ofType(String type) throws Exception {
+    AsciiBlock text = new Lines(new String[] {"alpha", "beta", "gamma", "delta", "epsilon"});
+    AsciiBlock rect = new Rect('x', 40, 20);
+    switch (type) {
+      case "line":
+        return new Line("The quick brown fox jumps over the lazy dog");
+      case "lines":
+        return text;
+      case "rect":
+        return rect;
+      case "boxed":
+        return new Boxed(rect);
+      case "surrounded":
+        return new Surrounded(rect, '*');
+      case "grid":
+        return new Grid(text, 8, 4);
+      case "hcomp":
+        return new HComp(VAlignment.CENTER, new AsciiBlock[] {text, rect, text});
+      case "vcomp":
+        return new VComp(HAlignment.CENTER, new AsciiBlock[] {text, rect, text});
+      case "hflip":
+        return new HFlip(rect);
+      case "vflip":
+        return new VFlip(rect);
+      case "trimmed":
+        return new Trimmed(new Grid(text, 8, 4), HAlignment.CENTER, VAlignment.CENTER, 20, 10);
+      case "padded":
+        return new Padded(text, '.', HAlignment.CENTER, VAlignment.CENTER, 40, 20);
+      case "stamp":
+        return stamp(rect);
+      default:
+        throw new Exception("Unknown block type " + type);
+    } // switch
+  } // ofType(String)
+
+  /**
+   * Stamp a cubic curve across a background, as Art80x24 does.
+   *
+   * @param background
+   *   The block to stamp.
+   *
+   * @return the stamped block.
+   */
+  public static AsciiBlock stamp(AsciiBlock background) {
+    return stamp(background, 40);
+  } // stamp(AsciiBlock)
+
+  /**
+   * Stamp a cubic curve across a background, as Art80x24 does, split
+   * into a given number of pieces.
+   *
+   * @param background
+   *   The block to stamp.
+   * @param divisions
+   *   The number of pieces, or BezierCurveStamp.ADAPTIVE.
+   *
+   * @return the stamped block.
+   */
+  public static AsciiBlock stamp(AsciiBlock background, int divisions) {
+    int w = background.width();
+    int h = background.height();
+    return new BezierCurveStamp(background, ' ', 3, divisions,
+        new int[] {w, -w / 5, -w / 5, w}, new int[] {0, 0, h, h});
+  } // stamp(AsciiBlock, int)
+
+  /**
+   * Nest a line inside alternating boxes and flips.
+   *
+   * @param depth
+   *   How many levels to nest.
+   *
+   * @return the nested block.
+   */
+  public static AsciiBlock deep(int depth) {
+    AsciiBlock block = new Line("center");
+    for (int i = 0; i < depth; i++) {
+      block = (i % 2 == 0) ? new Boxed(block) : new HFlip(block);
+    } // for [i]
+    return block;
+  } // deep(int)
+
+  /**
+   * Put many small blocks side by side.
+   *
+   * @param count
+   *   The number of blocks.
+   *
+   * @return the horizontal composition.
+   *
+   * @exception Exception
+   *   If we cannot build the parts.
+   */
+  public static AsciiBlock wide(int count) throws Exception {
+    AsciiBlock[] parts = new AsciiBlock[count];
+    for (int i = 0; i < count; i++) {
+      parts[i] = new Rect((char) ('a' + i % 26), 1 + i % 4, 1 + i % 8);
+    } // for [i]
+    return new HComp(VAlignment.CENTER, parts);
+  } // wide(int)
+
+  /**
+   * Stack many lines on top of each other, like a log view.
+   *
+   * @param count
+   *   The number of lines.
+   *
+   * @return the vertical composition.
+   */
+  public static AsciiBlock tall(int count) {
+    AsciiBlock[] parts = new AsciiBlock[count];
+    for (int i = 0; i < count; i++) {
+      parts[i] = new Line("log entry " + i);
+    } // for [i]
+    return new VComp(HAlignment.LEFT, parts);
+  } // tall(int)
+
+  /**
+   * Repeat a boxed cell many times in each direction.
+   *
+   * @param reps
+   *   The number of repetitions each way.
+   *
+   * @return the grid.
+   */
+  public static AsciiBlock bigGrid(int reps) {
+    return new Grid(new Boxed(new Line("#")), reps, reps);
+  } // bigGrid(int)
+} // class Scenes
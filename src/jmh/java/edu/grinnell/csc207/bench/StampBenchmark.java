@@ -0,0 +1,70 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.Rect;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction of BezierCurveStamps, which is where the curve is
+ * approximated and rasterized.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StampBenchmark {
+  /**
+   * The width of the background; the height is half of it.
+   */
+  @Param({"40", "400", "10000"})
+  public int width;
+
+  /**
+   * The number of pieces to split the curve into; 0 splits it only as
+   * much as it needs.
+   */
+  @Param({"40", "0"})
+  public int divisions;
+
+  /**
+   * The background to stamp.
+   */
+  AsciiBlock background;
+
+  /**
+   * Build the background.
+   *
+   * @exception Exception
+   *   If it cannot be built.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.background = new Rect('^', this.width, this.width / 2);
+  } // setup()
+
+  /**
+   * Build one stamp.
+   *
+   * @return the stamp.
+   */
+  @Benchmark
+  public AsciiBlock construct() {
+    return Scenes.stamp(this.background, this.divisions);
+  } // construct()
+} // class StampBenchmark
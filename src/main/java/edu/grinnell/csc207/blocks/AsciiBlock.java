@@ -1,6 +1,14 @@
 package edu.grinnell.csc207.blocks;
 
+import edu.grinnell.csc207.io.ChannelRenderer;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Blocks of ASCII text.
@@ -24,14 +32,138 @@ public interface AsciiBlock {
    *   The block to print.
    */
   public static void print(PrintWriter pen, AsciiBlock block) {
-    for (int i = 0; i < block.height(); i++) {
+    print(pen, block, ForkJoinPool.commonPool());
+  } // print(PrintWriter, AsciiBlock)
+
+  /**
+   * Print out a block, rendering big blocks with the threads of a given
+   * fork/join pool.
+   *
+   * @param pen
+   *   The PrintWriter used to print the block.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @param pool
+   *   The threads to use.
+   */
+  public static void print(PrintWriter pen, AsciiBlock block, ForkJoinPool pool) {
+    long version = block.version();
+    int width = block.width();
+    int height = block.height();
+    // Render a band of rows at a time into the same buffer, so that
+    // printing never needs the whole frame in memory.
+    char[][] band = new char[Math.min(height, ParallelRender.bandRows(width))][width];
+    for (int top = 0; top < height; top += band.length) {
+      int bottom = Math.min(height, top + band.length);
+      boolean rendered;
+      try {
+        rendered = ParallelRender.renderRows(block, version, height, band, top, bottom, pool);
+      } catch (IllegalStateException e) {
+        rendered = false;
+      } // try/catch
+      if (!rendered) {
+        printByRow(pen, block, top);
+        return;
+      } // if
+      for (int i = 0; i < bottom - top; i++) {
+        pen.println(band[i]);
+      } // for [i]
+    } // for [top]
+  } // print(PrintWriter, AsciiBlock, ForkJoinPool)
+
+  /**
+   * Print out a block to a channel, such as standard output, a file,
+   * or a socket. Pure ASCII blocks go straight from the block to the
+   * channel's buffer, without building strings or encoding characters.
+   *
+   * @param channel
+   *   The channel used to print the block.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  public static void print(WritableByteChannel channel, AsciiBlock block)
+      throws IOException {
+    ChannelRenderer renderer = new ChannelRenderer(channel);
+    renderer.print(block);
+    renderer.flush();
+  } // print(WritableByteChannel, AsciiBlock)
+
+  /**
+   * Print out the rest of a block one row at a time, noting any rows
+   * that cannot be produced. Blocks that fail to produce some row, or
+   * that change while we print them, end up here: the rows we have
+   * printed so far stand, and each row from here on is a whole row of
+   * the block as it is when we get to it.
+   *
+   * @param pen
+   *   The PrintWriter used to print the block.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @param first
+   *   The first row to print.
+   */
+  private static void printByRow(PrintWriter pen, AsciiBlock block, int first) {
+    for (int i = first; i < block.height(); i++) {
       try {
         pen.println(block.row(i));
       } catch (Exception e) {
         pen.printf("*** ERROR: Missing row %d ***\n", i);
       } // try/catch
     } // for
-  } // print(PrintWriter, AsciiBlock)
+  } // printByRow(PrintWriter, AsciiBlock, int)
+
+  /**
+   * Render a whole block into a freshly allocated grid of cells.
+   *
+   * @param block
+   *   The block to render.
+   *
+   * @return a grid with one array of characters per row of the block.
+   */
+  public static char[][] render(AsciiBlock block) {
+    char[][] cells = new char[block.height()][block.width()];
+    block.renderInto(cells, 0, 0);
+    return cells;
+  } // render(AsciiBlock)
+
+  /**
+   * Render a whole block into a freshly allocated grid of cells,
+   * splitting the rows between the threads of the common fork/join
+   * pool when the block is big enough to make that worthwhile. If the
+   * block changes while we render, we render it again on this thread.
+   *
+   * @param block
+   *   The block to render.
+   *
+   * @return a grid with one array of characters per row of the block.
+   */
+  public static char[][] renderParallel(AsciiBlock block) {
+    return ParallelRender.render(block, ForkJoinPool.commonPool());
+  } // renderParallel(AsciiBlock)
+
+  /**
+   * Render a whole block into a freshly allocated grid of cells,
+   * splitting the rows between the threads of a given fork/join pool
+   * when the block is big enough to make that worthwhile.
+   *
+   * @param block
+   *   The block to render.
+   * @param pool
+   *   The threads to use.
+   *
+   * @return a grid with one array of characters per row of the block.
+   */
+  public static char[][] renderParallel(AsciiBlock block, ForkJoinPool pool) {
+    return ParallelRender.render(block, pool);
+  } // renderParallel(AsciiBlock, ForkJoinPool)
 
   /**
    * Determine if two blocks are equal in that they occupy the same
@@ -82,6 +214,53 @@ public interface AsciiBlock {
     if (block1.height() != block2.height()) {
       return false;
     } // if
+    long version1 = block1.version();
+    long version2 = block2.version();
+    int width = block1.width();
+    int height = block1.height();
+    // Compare a band of rows at a time, so that we can stop at the
+    // first difference and never need either whole frame in memory.
+    int rows = Math.min(height, ParallelRender.bandRows(width));
+    char[][] band1 = new char[rows][width];
+    char[][] band2 = new char[rows][width];
+    for (int top = 0; top < height; top += rows) {
+      int bottom = Math.min(height, top + rows);
+      try {
+        if (!ParallelRender.renderRows(block1, version1, height, band1, top, bottom,
+            ForkJoinPool.commonPool())
+            || !ParallelRender.renderRows(block2, version2, height, band2, top, bottom,
+                ForkJoinPool.commonPool())) {
+          return equalByRow(block1, block2);
+        } // if
+      } catch (IllegalStateException e) {
+        // A block with a missing row is equal to no other block.
+        return false;
+      } // try/catch
+      for (int i = 0; i < bottom - top; i++) {
+        if (!Arrays.equals(band1[i], band2[i])) {
+          return false;
+        } // if
+      } // for [i]
+    } // for [top]
+    return true;
+  } // equal(AsciiBlock, AsciiBlock)
+
+  /**
+   * Determine if two blocks have the same contents, comparing them a
+   * row at a time as they are when we get to each row. For blocks that
+   * change while we compare them in bands.
+   *
+   * @param block1
+   *   One of the two blocks.
+   * @param block2
+   *   The other block.
+   *
+   * @return true if every row of one matches the same row of the other.
+   */
+  private static boolean equalByRow(AsciiBlock block1, AsciiBlock block2) {
+    if ((block1.width() != block2.width()) || (block1.height() != block2.height())) {
+      return false;
+    } // if
     for (int i = 0; i < block1.height(); i++) {
       try {
         if (!block1.row(i).equals(block2.row(i))) {
@@ -90,29 +269,46 @@ public interface AsciiBlock {
       } catch (Exception e) {
         return false;
       } // try/catch
-    } // for
+    } // for [i]
     return true;
-  } // equal(AsciiBlock, AsciiBlock)
+  } // equalByRow(AsciiBlock, AsciiBlock)
 
   // +---------+-----------------------------------------------------------
   // | Methods |
   // +---------+
 
   /**
-   * Get one row from the block.
+   * Get one row from the block, checking that the row exists. Callers
+   * that have already checked the row number (say, by looping from 0
+   * to height()) should use rowUnchecked instead.
    *
    * @param i the number of the row
    *
    * @return row i.
    *
-   * @pre
-   *   0 <= i < this.height()
-   *
    * @exception Exception
    *   if the row number is invalid.
    */
   public String row(int i) throws Exception;
 
+  /**
+   * Get one row from the block without checking the row number. This
+   * never builds an exception on the way down the tree, so it is the
+   * one to use once the row number is known to be valid.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   *
+   * @pre
+   *   0 <= i < this.height()
+   */
+  public default String rowUnchecked(int i) {
+    char[] output = new char[this.width()];
+    this.renderRow(i, output, 0);
+    return new String(output);
+  } // rowUnchecked(int)
+
   /**
    * Determine how many rows are in the block.
    *
@@ -137,4 +333,207 @@ public interface AsciiBlock {
    *    false otherwise.
    */
   public boolean eqv(AsciiBlock other);
+
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid. Blocks that can do so
+   * should paint themselves directly, without building intermediate
+   * strings; the default paints one row at a time.
+   *
+   * @param cells
+   *   The grid of cells; cells[r][c] is the character at row r, column c.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   *
+   * @pre
+   *   cells has at least y + this.height() rows, each of which has at
+   *   least x + this.width() columns.
+   */
+  public default void renderInto(char[][] cells, int x, int y) {
+    for (int i = 0; i < this.height(); i++) {
+      this.renderRow(i, cells[y + i], x);
+    } // for
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint a rectangular part of the block into a grid of cells. Rows
+   * top (inclusive) to bottom (exclusive) and columns left (inclusive)
+   * to right (exclusive) of the block are painted, with the cell at
+   * (top, left) landing at row y, column x of the grid. Nothing outside
+   * the rectangle is rendered, at any depth of the block.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the clipped part starts.
+   * @param y
+   *   The row of the grid at which the clipped part starts.
+   * @param top
+   *   The first row of the block to paint.
+   * @param left
+   *   The first column of the block to paint.
+   * @param bottom
+   *   The row after the last one to paint.
+   * @param right
+   *   The column after the last one to paint.
+   *
+   * @pre
+   *   0 <= top <= bottom <= this.height()
+   * @pre
+   *   0 <= left <= right <= this.width()
+   */
+  public default void renderInto(char[][] cells, int x, int y, int top, int left,
+      int bottom, int right) {
+    for (int i = top; i < bottom; i++) {
+      this.renderRow(i, left, right, cells[y + i - top], x);
+    } // for
+  } // renderInto(char[][], int, int, int, int, int, int)
+
+  /**
+   * Paint one row of the block into an array of characters, starting
+   * at a given offset. Exactly this.width() characters are written.
+   * Composite blocks paint their children straight into the same
+   * array, so a whole row costs one allocation at most. Like
+   * rowUnchecked, this does not check the row number.
+   *
+   * @param i
+   *   The number of the row.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which the row starts.
+   *
+   * @pre
+   *   0 <= i < this.height()
+   * @pre
+   *   offset + this.width() <= dest.length
+   */
+  public default void renderRow(int i, char[] dest, int offset) {
+    this.renderRow(i, 0, this.width(), dest, offset);
+  } // renderRow(int, char[], int)
+
+  /**
+   * Paint part of one row of the block into an array of characters.
+   * Column from of the row lands at dest[offset], and painting stops
+   * just before column to. Composite blocks pass the clip on to their
+   * children, so children only produce the columns that survive. The
+   * default copies the columns out of row(i).
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   *
+   * @pre
+   *   0 <= i < this.height()
+   * @pre
+   *   0 <= from <= to <= this.width()
+   * @pre
+   *   offset + (to - from) <= dest.length
+   */
+  public default void renderRow(int i, int from, int to, char[] dest, int offset) {
+    String row;
+    try {
+      row = this.row(i);
+    } catch (Exception e) {
+      throw new IllegalStateException("Missing row " + i, e);
+    } // try/catch
+    int end = Math.max(from, Math.min(to, row.length()));
+    if (from < end) {
+      row.getChars(from, end, dest, offset);
+    } // if
+    Arrays.fill(dest, offset + end - from, offset + to - from, ' ');
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Append one row of the block to a StringBuilder.
+   *
+   * @param i
+   *   The number of the row.
+   * @param out
+   *   The StringBuilder to append to.
+   *
+   * @pre
+   *   0 <= i < this.height()
+   */
+  public default void appendRow(int i, StringBuilder out) {
+    char[] row = new char[this.width()];
+    this.renderRow(i, row, 0);
+    out.append(row);
+  } // appendRow(int, StringBuilder)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column. Composite blocks descend only into the block that
+   * owns the cell, so this costs time proportional to the depth of the
+   * block rather than its width. The default looks the cell up in
+   * rowUnchecked(i).
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   *
+   * @pre
+   *   0 <= i < this.height()
+   * @pre
+   *   0 <= j < this.width()
+   */
+  public default char charAt(int i, int j) {
+    return this.rowUnchecked(i).charAt(j);
+  } // charAt(int, int)
+
+  /**
+   * Get the rows of the block as a stream. Rows are only built as the
+   * stream asks for them, and the stream knows its size and splits
+   * evenly, so it can be made parallel.
+   *
+   * @return the rows, in order.
+   */
+  public default Stream<String> rows() {
+    return StreamSupport.stream(this.rowSpliterator(), false);
+  } // rows()
+
+  /**
+   * Get a spliterator over the rows of the block.
+   *
+   * @return the spliterator.
+   */
+  public default Spliterator<String> rowSpliterator() {
+    return new RowSpliterator(this, 0, this.height());
+  } // rowSpliterator()
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change (including changes to blocks
+   * inside it). Caches of the block's rows may be kept for as long as
+   * the version stays the same. Blocks that never change may use the
+   * default, which is always 0.
+   *
+   * @return the version.
+   */
+  public default long version() {
+    return 0;
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly. Blocks that never
+   * change may use the default, which ignores the listener.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public default void addListener(BlockListener listener) {
+  } // addListener(BlockListener)
 } // interface AsciiBlock
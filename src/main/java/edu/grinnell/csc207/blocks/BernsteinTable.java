@@ -0,0 +1,123 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The weights of the control points of a Bezier curve of one degree
+ * at each of a number of evenly spaced points along the curve. Every
+ * curve of the same degree and subdivisions uses the same weights, so
+ * the tables are shared through a small cache of the ones used most
+ * recently.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class BernsteinTable {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The most tables we keep.
+   */
+  static final int MAX_TABLES = 32;
+
+  /**
+   * The tables we keep, keyed by degree and subdivisions, with the one
+   * used least recently first.
+   */
+  static final Map<Long, BernsteinTable> TABLES =
+      new LinkedHashMap<Long, BernsteinTable>(MAX_TABLES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BernsteinTable> eldest) {
+          return this.size() > MAX_TABLES;
+        } // removeEldestEntry(Map.Entry)
+      };
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of ways to choose k of the degree control points, for
+   * each k.
+   */
+  final float[] binomials;
+
+  /**
+   * The power terms of the weight of control point k at point j of the
+   * curve, t^k (1 - t)^(degree - k) where t = j / subdivisions. The
+   * whole weight is the binomial times the power terms; we keep them
+   * apart so that the curve is computed exactly as it was when the
+   * weights were computed for each point.
+   */
+  final float[][] powers;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Compute the weights for curves of one degree.
+   *
+   * @param degree
+   *   The degree of the curves.
+   * @param subdivisions
+   *   The number of pieces each curve is split into.
+   */
+  BernsteinTable(int degree, int subdivisions) {
+    this.binomials = new float[degree + 1];
+    // Each binomial follows from the one before, C(n, k) = C(n, k - 1)
+    // (n - k + 1) / k. Every partial result is a whole number, so this
+    // is exact as long as the numbers fit in a double's 53 bits.
+    double binomial = 1;
+    for (int k = 0; k <= degree; k++) {
+      if (k > 0) {
+        binomial = binomial * (degree - k + 1) / k;
+      } // if
+      this.binomials[k] = (float) binomial;
+    } // for [k]
+    this.powers = new float[subdivisions + 1][degree + 1];
+    for (int j = 0; j <= subdivisions; j++) {
+      double t = (double) j / subdivisions;
+      double u = (subdivisions - (double) j) / subdivisions;
+      for (int k = 0; k <= degree; k++) {
+        this.powers[j][k] = (float) (Math.pow(t, k) * Math.pow(u, degree - k));
+      } // for [k]
+    } // for [j]
+  } // BernsteinTable(int, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Get the weights for curves of one degree, computing them only if
+   * they are not in the cache.
+   *
+   * @param degree
+   *   The degree of the curves.
+   * @param subdivisions
+   *   The number of pieces each curve is split into.
+   *
+   * @return the weights.
+   */
+  static BernsteinTable of(int degree, int subdivisions) {
+    Long key = ((long) degree << 32) | (subdivisions & 0xFFFFFFFFL);
+    synchronized (TABLES) {
+      BernsteinTable result = TABLES.get(key);
+      if (result != null) {
+        return result;
+      } // if
+    } // synchronized
+    // Compute outside the lock; if two threads race, both tables are
+    // the same, so it does not matter which one we keep.
+    BernsteinTable result = new BernsteinTable(degree, subdivisions);
+    synchronized (TABLES) {
+      TABLES.put(key, result);
+    } // synchronized
+    return result;
+  } // of(int, int)
+
+} // class BernsteinTable
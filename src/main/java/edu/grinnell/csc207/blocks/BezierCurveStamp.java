@@ -7,7 +7,35 @@ package edu.grinnell.csc207.blocks;
  * @author Cade Johnston
  * @author Nicky Moreno Gonzalez
  */
-public class BezierCurveStamp implements AsciiBlock {
+public class BezierCurveStamp implements AsciiBlock, BlockListener {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of subdivisions that asks us to split each curve only
+   * as much as it needs: each piece is split in half until every one
+   * of its control points is within FLATNESS (a quarter of a cell) of
+   * the chord between its ends, or until it has been split MAX_SPLITS
+   * (24) times, whichever comes first.
+   */
+  public static final int ADAPTIVE = 0;
+
+  /**
+   * How far the control points of a piece of an adaptively split curve
+   * may stray from the chord between its ends, in cells. Rounding the ends of each
+   * piece to cells adds error of its own, so we allow a quarter of a
+   * cell, which keeps the drawn curve within about half a cell of the
+   * true one.
+   */
+  static final double FLATNESS = 0.25;
+
+  /**
+   * The most times we split a piece of a curve, whether or not it is
+   * flat by then, so that far-flung control points cannot make us
+   * split (nearly) forever. Each curve becomes at most 2^24 pieces.
+   */
+  static final int MAX_SPLITS = 24;
 
   // +--------+------------------------------------------------------------
   // | Fields |
@@ -39,15 +67,26 @@ public class BezierCurveStamp implements AsciiBlock {
   int[] yData;
 
   /**
-   * The data of the stamp.
+   * The cells the curve covers: a bitset of the contents, or sparse runs
+   * when the curve covers few of the cells.
    */
-  boolean[][] stampData;
+  volatile CellMask mask;
 
   /**
    * The character used by the stamp.
    */
   char c;
 
+  /**
+   * How the cells along the curve connect.
+   */
+  Connectivity connectivity;
+
+  /**
+   * The listeners to tell when the block changes.
+   */
+  Listeners listeners = new Listeners();
+
   // +--------------+------------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -70,6 +109,31 @@ public class BezierCurveStamp implements AsciiBlock {
    */
   public BezierCurveStamp(AsciiBlock blockContents, char ch, int degree,
                           int divisions, int[] xCoords, int[] yCoords) {
+    this(blockContents, ch, degree, divisions, xCoords, yCoords, Connectivity.FOUR);
+  } // BezierCurveStamp(AsciiBlock, char, int, int, int[], int[])
+
+  /**
+   * Build a new block with the specified contents, choosing how the
+   * cells along the curve connect.
+   *
+   * @param blockContents
+   *   The contents of the block.
+   * @param ch
+   *   The character to use in the stamp.
+   * @param degree
+   *   The degree of the bezier curve.
+   * @param divisions
+   *   The amount of subdivisions involved in the approximation of the curve.
+   * @param xCoords
+   *   The set of x coordinates to use as points.
+   * @param yCoords
+   *   The set of y coordinates to use as points.
+   * @param cellConnectivity
+   *   How the cells along the curve connect.
+   */
+  public BezierCurveStamp(AsciiBlock blockContents, char ch, int degree,
+                          int divisions, int[] xCoords, int[] yCoords,
+                          Connectivity cellConnectivity) {
     // Accept and store the parameters.
     this.contents = blockContents;
     this.c = ch;
@@ -77,21 +141,71 @@ public class BezierCurveStamp implements AsciiBlock {
     this.subdivisions = divisions;
     this.xData = xCoords;
     this.yData = yCoords;
-    this.stampData = new boolean[this.height()][this.width()];
-    // Fill stampData with false values.
-    for (int i = 0; i < contents.height(); i++) {
-      for (int j = 0; j < contents.width(); j++) {
-        stampData[i][j] = false;
-      } // for [j]
+    this.connectivity = cellConnectivity;
+    this.stamp();
+    this.contents.addListener(this);
+  } // BezierCurveStamp(AsciiBlock, char, int, int, int[], int[], Connectivity)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Estimate, generously, how much work it takes to draw some curves:
+   * the cells the rasterizer walks, on the block or off it, plus the
+   * arithmetic of finding the ends of the pieces. Callers that take
+   * curves from people they do not trust can use this to turn away
+   * curves that would take too long to draw.
+   *
+   * @param degree
+   *   The degree of the bezier curve.
+   * @param divisions
+   *   The amount of subdivisions involved in the approximation of the curve.
+   * @param xCoords
+   *   The set of x coordinates to use as points.
+   * @param yCoords
+   *   The set of y coordinates to use as points.
+   *
+   * @return an upper bound on the number of steps, or 0 if the
+   *   arguments do not describe curves (in which case none are drawn).
+   *
+   * @exception ArithmeticException
+   *   If the bound does not fit in a long.
+   */
+  public static long cost(int degree, int divisions, int[] xCoords, int[] yCoords) {
+    if ((degree <= 0) || (divisions < 0) || (xCoords.length != yCoords.length)
+        || (xCoords.length % degree != 1 % degree)) {
+      return 0;
+    } // if
+    long total = 0;
+    for (int i = 0; i < (xCoords.length - 1) / degree; i++) {
+      // The curve is no longer than its control polygon.
+      long length = 0;
+      for (int k = i * degree; k < (i + 1) * degree; k++) {
+        length = Math.addExact(length, Math.abs((long) xCoords[k + 1] - xCoords[k])
+            + Math.abs((long) yCoords[k + 1] - yCoords[k]));
+      } // for [k]
+      long pieces;
+      long steps;
+      if (divisions == ADAPTIVE) {
+        // A piece whose control polygon is no longer than FLATNESS is
+        // flat, and the pieces at one depth are no longer than the whole,
+        // so each of the MAX_SPLITS depths splits at most length /
+        // FLATNESS pieces, each in about (degree + 1)^2 steps.
+        pieces = Math.min(1L << MAX_SPLITS,
+            Math.addExact(Math.multiplyExact(length, (long) (MAX_SPLITS / FLATNESS)), 1));
+        steps = (degree + 1L) * (degree + 1L);
+      } else {
+        pieces = divisions + 1L;
+        steps = degree + 1L;
+      } // if / else
+      // Each piece walks the cells of its chord, plus a few for the
+      // rounding of its ends.
+      total = Math.addExact(total,
+          Math.addExact(length, Math.multiplyExact(pieces, steps + 3)));
     } // for [i]
-    // Attempt to create the data of the stamp.
-    try {
-      createData();
-    // If the arguments were bad, print out an error message.
-    } catch (Exception e) {
-      System.err.println("Bad Argument: No stamp generated.");
-    } // try / catch [Exception]
-  } // BezierCurveStamp(AsciiBlock, char, int, int, int[], int[])
+    return total;
+  } // cost(int, int, int[], int[])
 
   // +---------+-----------------------------------------------------------
   // | Methods |
@@ -111,17 +225,7 @@ public class BezierCurveStamp implements AsciiBlock {
     if (i < 0 || i >= this.height()) {
       throw new Exception("Invalid row " + i);
     } // if
-    char[] output = contents.row(i).toCharArray();
-    for (int j = 0; j < this.width(); j++) {
-      if (stampData[i][j]) {
-        output[j] = this.c;
-      } // if
-    } // for [i]
-    String toReturn = "";
-    for (int j = 0; j < this.width(); j++) {
-      toReturn = toReturn.concat(output[j] + "");
-    } // for [j]
-    return toReturn;
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -142,17 +246,137 @@ public class BezierCurveStamp implements AsciiBlock {
     return this.contents.width();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    this.contents.renderInto(cells, x, y);
+    CellMask cover = this.mask;
+    for (int i = 0; i < cover.height(); i++) {
+      cover.paint(i, 0, cover.width(), cells[y + i], x, this.c);
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.contents.renderRow(i, from, to, dest, offset);
+    this.mask.paint(i, from, to, dest, offset, this.c);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    if (this.mask.get(j, i)) {
+      return this.c;
+    } // if
+    return this.contents.charAt(i, j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.contents.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.listeners.add(listener);
+  } // addListener(BlockListener)
+
+  /**
+   * Note that the contents have changed. The curve is clipped to the
+   * contents, so if they changed size we stamp the curve again.
+   *
+   * @param source
+   *   The block that changed.
+   * @param resized
+   *   Whether the width or height of the block may have changed.
+   */
+  public void blockChanged(AsciiBlock source, boolean resized) {
+    if (resized) {
+      this.stamp();
+    } // if
+    this.listeners.fire(source, resized);
+  } // blockChanged(AsciiBlock, boolean)
+
+  /**
+   * Work out which cells the curve covers, given the current size of
+   * the contents.
+   */
+  void stamp() {
+    CellCollector cover = new CellCollector(this.width(), this.height());
+    // Attempt to create the data of the stamp.
+    try {
+      createData(cover);
+    // If the arguments were bad, print out an error message.
+    } catch (Exception e) {
+      System.err.println("Bad Argument: No stamp generated.");
+    } // try / catch [Exception]
+    this.mask = cover.mask();
+  } // stamp()
+
   /**
    * Creates the curve data by approximating points on a possible
    * series of curves and linearly interpolating them.
    *
+   * @param cover
+   *   Where to record the cells the curves cover.
+   *
    * @throws Exception
    *   If the data is not of appropriate length, throw a generic Exception.
    */
-  private void createData() throws Exception {
+  private void createData(CellCollector cover) throws Exception {
     // If the count of x coordinates and y coordinates is equal and there is one more data point
     // than a multiple of the degree ...
     if ((xData.length == yData.length) && (xData.length % this.polyDegree == 1 % this.polyDegree)) {
+      // If we were asked to split the curves only as much as they need,
+      // the splitting draws the pieces as it goes.
+      if (this.subdivisions == ADAPTIVE) {
+        this.flattenAll(cover);
+        return;
+      } // if
       // refined_Data variables will hold a set of coordinates that are approximations
       // of points on the curve. The are (input data count - 1) / (degree) * (subdivisions) + 1
       // points that need to be approximated along the curve.
@@ -162,180 +386,146 @@ public class BezierCurveStamp implements AsciiBlock {
       // currently approximated point.
       float curX;
       float curY;
-      // last_ variables will hold the current values of the X and Y coordinates such that
-      // these values are the nearest integers. The equivalent cur_ variable will still hold with
-      // float precision alongside last_.
-      int lastX;
-      int lastY;
-      // delta_ variables will hold the rate of change of cur_.
+      // delta_ variables will hold what each point adds to cur_.
       float deltaX = 0;
       float deltaY = 0;
+      // The weight of each point along the curve is the same for every curve
+      // of this degree and subdivisions, so look them up rather than
+      // computing them again.
+      BernsteinTable weights = BernsteinTable.of(this.polyDegree, this.subdivisions);
       // For each curve specified by the data ...
       for (int i = 0; i < (xData.length - 1) / (this.polyDegree); i++) {
         // For each to-be approximated point on curve i ...
-        for (double j = 0; j <= this.subdivisions; j++) {
+        for (int j = 0; j <= this.subdivisions; j++) {
           // Reset curX and curY
           curX = 0;
           curY = 0;
+          // The powers of the weights at approximated point j.
+          float[] powers = weights.powers[j];
           // For each point relevant to curve i ...
           for (int k = 0; k <= this.polyDegree; k++) {
             // The equation of a point along bezier curve is as follows:
-            // Summation (k=0 ; k<=degree) {t = k / degree; point(k) * combinations(degree, k) *
+            // Summation (k=0 ; k<=degree) {t = k / degree; point(k) * C(degree, k) *
             // (t ^ k) * ((1 - t) ^ (degree - k))}
             // Thus, we need to generate the weight point k has on curve i at approximated point j.
             // Do this by multiplying each point j by nCr(degree, k),
-            // (j / subdivisions) ^ (k), and ((subdivisions - j) / subdivisions)^(degree - k).
-            deltaX = xData[i * this.polyDegree + k] * combinations(this.polyDegree, k)
-                     * (float) (Math.pow(j / this.subdivisions, k)
-                     * Math.pow((this.subdivisions - j) / this.subdivisions, this.polyDegree - k));
-            deltaY = yData[i * this.polyDegree + k] * combinations(this.polyDegree, k)
-                     * (float) (Math.pow(j / this.subdivisions, k)
-                     * Math.pow((this.subdivisions - j) / this.subdivisions, this.polyDegree - k));
+            // (j / subdivisions) ^ (k), and ((subdivisions - j) / subdivisions)^(degree - k),
+            // the last two of which the table keeps together.
+            deltaX = xData[i * this.polyDegree + k] * weights.binomials[k] * powers[k];
+            deltaY = yData[i * this.polyDegree + k] * weights.binomials[k] * powers[k];
             // Add the weight point k has on curve i at approximated point j to curX and curY.
             curX += deltaX;
             curY += deltaY;
           } // for [k]
           // Add the new point (curX, curY) to the refined_Data variables at
           // the appropriate location.
-          refinedXData[(int) (i * this.subdivisions + j)] = Math.round(curX);
-          refinedYData[(int) (i * this.subdivisions + j)] = Math.round(curY);
+          refinedXData[i * this.subdivisions + j] = Math.round(curX);
+          refinedYData[i * this.subdivisions + j] = Math.round(curY);
         } // for [j]
       } // for [i]
       // Now we need to add points along each line segment defined by a point and the next
-      // point in the array.
-      // Thus, for each approximated point along the line, except for the last one ...
+      // point in the array, which we leave to the rasterizer.
       for (int i = 0; i < refinedXData.length - 1; i++) {
-        // Set the cur_ variables to the first point
-        curX = refinedXData[i];
-        curY = refinedYData[i];
-        // If the first point and next point are the same ...
-        if ((Math.abs(refinedXData[i + 1] - refinedXData[i]) == 0)
-            && (Math.abs(refinedYData[i + 1] - refinedYData[i]) == 0)) {
-          // Add that shared point to the curve.
-          includeIfValid((int) curX, (int) curY);
-        // Otherwise, if the change in X is greater than or equal to the change in Y ...
-        } else if (Math.abs(refinedXData[i + 1] - refinedXData[i])
-                   >= Math.abs(refinedYData[i + 1] - refinedYData[i])) {
-          // Set deltaX to the sign of the difference between
-          // the next point and this one.
-          deltaX = Math.signum(refinedXData[i + 1] - refinedXData[i]);
-          // Then set deltaY to the difference in Y between the next point and this one
-          // divided by the absolute value of the difference in X.
-          deltaY = (float) (refinedYData[i + 1] - refinedYData[i])
-                   / Math.abs(refinedXData[i + 1] - refinedXData[i]);
-          // Set lastY to curY
-          lastY = (int) curY;
-          // For as long as curX != the next points' X value, and once more after that ...
-          for (curX = refinedXData[i]; (int) curX != (int) refinedXData[i + 1] + deltaX;
-               curX += deltaX) {
-            // Check if the absolute difference between lastY and curY is greater than 0.5
-            if (Math.abs((float) lastY - curY) >= 0.5) {
-              // If it is, increase lastY by the sign of deltaY
-              lastY += Math.signum(deltaY);
-              // If the difference of lastY and curY + half of deltaY is less than 0.5 ...
-              // (i.e. If the line approximation crosses the y-axis first)
-              if (Math.abs(lastY - curY - deltaY * 0.5) < 0.5) {
-                // Add a point at the coordinate (curX, lastY - sign deltaY).
-                includeIfValid((int) curX,  lastY - (int) Math.signum(deltaY));
-              // If the difference of lastY and curY + half of deltaY is greater than 0.5 ...
-              // (i.e. If the line approximation crosses the x-axis first)
-              } else if (Math.abs(lastY - curY - deltaY * 0.5) > 0.5) {
-                // Add a point at the coordinate (curX - sign deltaX, lastY).
-                includeIfValid((int) curX - (int) Math.signum(deltaX),  lastY);
-              } // if / else if
-            } // if
-            // Add a point at the coordinate (curX, lastY).
-            includeIfValid((int) curX, lastY);
-            // Increase curY by deltaY.
-            curY += deltaY;
-          } // for (curX)
-        //Otherwise, (i.e. if the change in Y is greater than the change in X) ...
-        } else {
-          // Set deltaY to the sign of the difference between
-          // the next point and this one.
-          deltaY = Math.signum(refinedYData[i + 1] - refinedYData[i]);
-          // Then set deltaX to the difference in X between the next point and this one
-          // divided by the absolute value of the difference in Y.
-          deltaX = (float) (refinedXData[i + 1] - refinedXData[i])
-                   / Math.abs(refinedYData[i + 1] - refinedYData[i]);
-          // Set lastX to curX
-          lastX = (int) curX;
-          // For as long as curY != the next points' Y value, and once more after that ...
-          for (curY = refinedYData[i]; (int) curY != (int) refinedYData[i + 1] + deltaY;
-               curY += deltaY) {
-            // Check if the absolute difference between lastX and curX is greater than 0.5
-            if (Math.abs((float) lastX - curX) >= 0.5) {
-              // If it is, increase lastX by the sign of deltaX
-              lastX += Math.signum(deltaX);
-              // If the difference of lastX and curX + half of deltaX is less than 0.5 ...
-              // (i.e. If the line approximation crosses the x-axis first)
-              if (Math.abs(lastX - curX - deltaX * 0.5) < 0.5) {
-                // Add a point at the coordinate (lastX - sign deltaX, curY).
-                includeIfValid(lastX - (int) Math.signum(deltaX), (int) curY);
-              // If the difference of lastX and curX + half of deltaX is greater than 0.5 ...
-              // (i.e. If the line approximation crosses the y-axis first)
-              } else if (Math.abs(lastX - curX - deltaX * 0.5) > 0.5) {
-                // Add a point at the coordinate (lastX, curY - sign deltaY).
-                includeIfValid(lastX, (int) curY - (int) Math.signum(deltaY));
-              } // if / else if
-            } // if
-            // Add a point at the coordinate (lastX, curY).
-            includeIfValid(lastX, (int) curY);
-            // Increase curX by deltaX.
-            curX += deltaX;
-          } // for (curY)
-        } // if / else
+        LineRasterizer.line(refinedXData[i], refinedYData[i],
+            refinedXData[i + 1], refinedYData[i + 1], this.connectivity, cover);
       } // for [i]
     // Otherwise, throw an exception.
     } else {
       throw new Exception("Bad Data Count");
     } // if / else
-  } // createData()
+  } // createData(CellCollector)
 
   /**
-   * Return the count of combinations of n choose r.
+   * Draw each curve specified by the data, splitting it in half until
+   * each piece is flat enough to draw as a straight line. The number
+   * of pieces, and so the work, grows with the length and bend of the
+   * curve on the block.
    *
-   * @param n
-   *   The number of objects.
-   * @param r
-   *   The number of selections.
-   * @return
-   *   The count of combinations
+   * @param plot
+   *   Where to plot the cells of the curves.
    */
-  private float combinations(int n, int r) {
-    return (float) (factorial(n) / (factorial(r) * factorial(n - r)));
-  } // combinations(int, int)
+  private void flattenAll(LineRasterizer.Plot plot) {
+    for (int i = 0; i < (xData.length - 1) / (this.polyDegree); i++) {
+      double[] xs = new double[this.polyDegree + 1];
+      double[] ys = new double[this.polyDegree + 1];
+      for (int k = 0; k <= this.polyDegree; k++) {
+        xs[k] = xData[i * this.polyDegree + k];
+        ys[k] = yData[i * this.polyDegree + k];
+      } // for [k]
+      this.flatten(xs, ys, 0, plot);
+    } // for [i]
+  } // flattenAll(LineRasterizer.Plot)
 
   /**
-   * Returns the factiorial of positive integer n.
+   * Draw one curve, given by its control points, splitting it in half
+   * (de Casteljau's way) until it is flat.
    *
-   * @param n
-   *   The number to get the factorial of.
-   * @return
-   *   The factorial of n.
+   * @param xs
+   *   The x coordinates of the control points.
+   * @param ys
+   *   The y coordinates of the control points.
+   * @param splits
+   *   The number of times we have already split.
+   * @param plot
+   *   Where to plot the cells of the curve.
    */
-  private int factorial(int n) {
-    int output = 1;
-    while (n > 0) {
-      output *= n;
-      n--;
-    } // while
-    return output;
-  } // factorial(int)
+  private void flatten(double[] xs, double[] ys, int splits, LineRasterizer.Plot plot) {
+    int n = xs.length - 1;
+    if ((splits >= MAX_SPLITS) || flat(xs, ys)) {
+      LineRasterizer.line((int) Math.round(xs[0]), (int) Math.round(ys[0]),
+          (int) Math.round(xs[n]), (int) Math.round(ys[n]), this.connectivity, plot);
+      return;
+    } // if
+    // Average neighbouring points again and again. The first point of
+    // each round belongs to the left half, and what is left at the end
+    // (the last point of each round) is the right half.
+    double[] leftX = new double[n + 1];
+    double[] leftY = new double[n + 1];
+    double[] rightX = xs.clone();
+    double[] rightY = ys.clone();
+    for (int round = 0; round <= n; round++) {
+      leftX[round] = rightX[0];
+      leftY[round] = rightY[0];
+      for (int k = 0; k < n - round; k++) {
+        rightX[k] = (rightX[k] + rightX[k + 1]) / 2;
+        rightY[k] = (rightY[k] + rightY[k + 1]) / 2;
+      } // for [k]
+    } // for [round]
+    this.flatten(leftX, leftY, splits + 1, plot);
+    this.flatten(rightX, rightY, splits + 1, plot);
+  } // flatten(double[], double[], int, LineRasterizer.Plot)
 
   /**
-   * Attempts to include point (xCoord, yCoord) in the stamp data.
+   * Determine if a curve is close enough to the line between its ends
+   * to draw as that line. The curve lies within its control points, so
+   * it is enough that each control point is within FLATNESS of the
+   * line.
    *
-   * @param xCoord
-   *   The x coordinate of the new point.
-   * @param yCoord
-   *   The y coordinate of the new point.
+   * @param xs
+   *   The x coordinates of the control points.
+   * @param ys
+   *   The y coordinates of the control points.
+   *
+   * @return true if the curve is flat and false otherwise.
    */
-  private void includeIfValid(int xCoord, int yCoord) {
-    if ((xCoord >= 0) && (xCoord < this.width()) && (yCoord >= 0) && (yCoord < this.height())) {
-      stampData[yCoord][xCoord] = true;
-    } // if
-  } // includeIfValid(int, int)
+  static boolean flat(double[] xs, double[] ys) {
+    int n = xs.length - 1;
+    double dx = xs[n] - xs[0];
+    double dy = ys[n] - ys[0];
+    double length2 = dx * dx + dy * dy;
+    for (int k = 1; k < n; k++) {
+      // Find the nearest point of the line between the ends.
+      double t = (length2 == 0)
+          ? 0
+          : Math.max(0, Math.min(1, ((xs[k] - xs[0]) * dx + (ys[k] - ys[0]) * dy) / length2));
+      double ex = xs[k] - (xs[0] + t * dx);
+      double ey = ys[k] - (ys[0] + t * dy);
+      if (ex * ex + ey * ey > FLATNESS * FLATNESS) {
+        return false;
+      } // if
+    } // for [k]
+    return true;
+  } // flat(double[], double[])
 
   /**
    * Determine if another block is structurally equivalent to this block.
@@ -364,6 +554,7 @@ public class BezierCurveStamp implements AsciiBlock {
       && (this.c == other.c)
       && (this.polyDegree == other.polyDegree)
       && (this.subdivisions == other.subdivisions)
+      && (this.connectivity == other.connectivity)
       && (this.xData == other.xData)
       && (this.yData == other.yData);
   } // eqv(BezierCurveStamp)
@@ -0,0 +1,146 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * A set of cells of a grid, one bit per cell, packed into longs with
+ * each row starting at a new long.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class BitMask implements CellMask {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  final int width;
+
+  /**
+   * The number of rows.
+   */
+  final int height;
+
+  /**
+   * The number of longs in each row.
+   */
+  final int words;
+
+  /**
+   * The bits, row by row. Bit j % 64 of word j / 64 of a row is set
+   * if column j is in the set.
+   */
+  final long[] bits;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build an empty set of cells.
+   *
+   * @param maskWidth
+   *   The number of columns.
+   * @param maskHeight
+   *   The number of rows.
+   */
+  BitMask(int maskWidth, int maskHeight) {
+    this.width = maskWidth;
+    this.height = maskHeight;
+    this.words = (maskWidth + 63) >>> 6;
+    this.bits = new long[this.words * maskHeight];
+  } // BitMask(int, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine how many columns the grid has.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine how many rows the grid has.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Add a cell to the set, if it is within the grid.
+   *
+   * @param x
+   *   The column of the cell.
+   * @param y
+   *   The row of the cell.
+   */
+  void set(int x, int y) {
+    if ((x >= 0) && (x < this.width) && (y >= 0) && (y < this.height)) {
+      this.bits[y * this.words + (x >>> 6)] |= 1L << x;
+    } // if
+  } // set(int, int)
+
+  /**
+   * Determine if a cell is in the set.
+   *
+   * @param x
+   *   The column of the cell.
+   * @param y
+   *   The row of the cell.
+   *
+   * @return true if it is and false otherwise.
+   */
+  public boolean get(int x, int y) {
+    return (x >= 0) && (x < this.width) && (y >= 0) && (y < this.height)
+        && ((this.bits[y * this.words + (x >>> 6)] & (1L << x)) != 0);
+  } // get(int, int)
+
+  /**
+   * Paint a character into the cells of one row that are in the set.
+   * Only columns from (inclusive) to to (exclusive) are painted, and
+   * column from goes at index offset of dest.
+   *
+   * @param y
+   *   The row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   * @param ch
+   *   The character to paint.
+   */
+  public void paint(int y, int from, int to, char[] dest, int offset, char ch) {
+    int end = Math.min(to, this.width);
+    if ((y < 0) || (y >= this.height) || (from >= end)) {
+      return;
+    } // if
+    int row = y * this.words;
+    int last = (end - 1) >>> 6;
+    for (int w = from >>> 6; w <= last; w++) {
+      long word = this.bits[row + w];
+      if (w == (from >>> 6)) {
+        word &= -1L << from;
+      } // if
+      if (w == last) {
+        word &= -1L >>> (63 - ((end - 1) & 63));
+      } // if
+      // Visit the set bits from lowest to highest, clearing each in turn.
+      while (word != 0) {
+        dest[offset + (w << 6) + Long.numberOfTrailingZeros(word) - from] = ch;
+        word &= word - 1;
+      } // while
+    } // for [w]
+  } // paint(int, int, int, char[], int, char)
+} // class BitMask
@@ -0,0 +1,27 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * Something that wants to hear when a block changes. Mutable blocks
+ * tell their listeners whenever their contents or size change, and
+ * blocks built from other blocks pass the news along, so a block can
+ * recompute whatever it has worked out about the blocks below it only
+ * when it has to.
+ *
+ * Blocks hold on to their listeners weakly, so listening to a block
+ * never keeps the listener alive.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public interface BlockListener {
+  /**
+   * Note that a block has changed.
+   *
+   * @param source
+   *   The block that changed.
+   * @param resized
+   *   Whether the width or height of the block may have changed, in
+   *   addition to its contents.
+   */
+  public void blockChanged(AsciiBlock source, boolean resized);
+} // interface BlockListener
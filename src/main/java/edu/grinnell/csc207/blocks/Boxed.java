@@ -1,5 +1,7 @@
 package edu.grinnell.csc207.blocks;
 
+import java.util.Arrays;
+
 /**
  * A text block surrounded by a box.
  *
@@ -60,19 +62,10 @@ public class Boxed implements AsciiBlock {
    *   if the row is invalid
    */
   public String row(int i) throws Exception {
-    int h = this.contents.height();
-    if (i == 0) {
-      // The top of the box
-      return SLASH + "-".repeat(this.contents.width()) + BACKSLASH;
-    } else if (i == h + 1) {
-      // The bottom of the box
-      return BACKSLASH + "-".repeat(this.contents.width()) + SLASH;
-    } else if ((i > 0) && (i <= h)) {
-      // Stuff within the box
-      return "|" + this.contents.row(i - 1) + "|";
-    } else {
+    if ((i < 0) || (i > this.contents.height() + 1)) {
       throw new Exception("Invalid row " + i);
-    } // if/else
+    } // if
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -93,6 +86,129 @@ public class Boxed implements AsciiBlock {
     return 2 + this.contents.width();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    int w = this.contents.width();
+    int h = this.contents.height();
+    cells[y][x] = '/';
+    Arrays.fill(cells[y], x + 1, x + w + 1, '-');
+    cells[y][x + w + 1] = '\\';
+    for (int i = 1; i <= h; i++) {
+      cells[y + i][x] = '|';
+      cells[y + i][x + w + 1] = '|';
+    } // for [i]
+    cells[y + h + 1][x] = '\\';
+    Arrays.fill(cells[y + h + 1], x + 1, x + w + 1, '-');
+    cells[y + h + 1][x + w + 1] = '/';
+    this.contents.renderInto(cells, x + 1, y + 1);
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    if (from >= to) {
+      return;
+    } // if
+    int w = this.contents.width();
+    int h = this.contents.height();
+    if ((i == 0) || (i == h + 1)) {
+      // The top or bottom of the box
+      Arrays.fill(dest, offset, offset + to - from, '-');
+      if (from == 0) {
+        dest[offset] = (i == 0) ? '/' : '\\';
+      } // if
+      if (to == w + 2) {
+        dest[offset + to - from - 1] = (i == 0) ? '\\' : '/';
+      } // if
+    } else {
+      // Stuff within the box
+      if (from == 0) {
+        dest[offset] = '|';
+      } // if
+      int lo = Math.max(from, 1);
+      int hi = Math.min(to, w + 1);
+      if (lo < hi) {
+        this.contents.renderRow(i - 1, lo - 1, hi - 1, dest, offset + lo - from);
+      } // if
+      if (to == w + 2) {
+        dest[offset + to - from - 1] = '|';
+      } // if
+    } // if/else
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    int w = this.contents.width();
+    int h = this.contents.height();
+    if ((i == 0) || (i == h + 1)) {
+      if ((j == 0) || (j == w + 1)) {
+        return ((i == 0) == (j == 0)) ? '/' : '\\';
+      } // if
+      return '-';
+    } else if ((j == 0) || (j == w + 1)) {
+      return '|';
+    } else {
+      return this.contents.charAt(i - 1, j - 1);
+    } // if/else
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.contents.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. A box works out its border from the contents each time it
+   * is drawn, so it only changes when they do; the listener can listen
+   * to the contents.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.contents.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
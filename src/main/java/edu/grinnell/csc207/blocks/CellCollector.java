@@ -0,0 +1,134 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.Arrays;
+
+/**
+ * Collects the cells of a grid that lines are plotted into, then
+ * stores them as a bitset or as sparse runs, whichever is smaller. The
+ * bitset for a small grid is small anyway, so for those we fill in the
+ * bitset directly.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class CellCollector implements LineRasterizer.Plot {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest bitset, in bytes, that we fill in directly.
+   */
+  static final long SMALL = 1 << 16;
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  int width;
+
+  /**
+   * The number of rows.
+   */
+  int height;
+
+  /**
+   * The bitset we fill in directly, if the grid is small.
+   */
+  BitMask direct;
+
+  /**
+   * The cells plotted so far within the grid, each as its row times
+   * 2^32 plus its column, if the grid is not small.
+   */
+  long[] cells;
+
+  /**
+   * The number of cells plotted so far.
+   */
+  int count;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Get ready to collect the cells of a grid.
+   *
+   * @param gridWidth
+   *   The number of columns.
+   * @param gridHeight
+   *   The number of rows.
+   */
+  CellCollector(int gridWidth, int gridHeight) {
+    this.width = gridWidth;
+    this.height = gridHeight;
+    if (bitsetBytes(gridWidth, gridHeight) <= SMALL) {
+      this.direct = new BitMask(gridWidth, gridHeight);
+    } else {
+      this.cells = new long[64];
+    } // if / else
+  } // CellCollector(int, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Take one cell, ignoring it if it is outside the grid.
+   *
+   * @param x
+   *   The column of the cell.
+   * @param y
+   *   The row of the cell.
+   */
+  public void plot(int x, int y) {
+    if (this.direct != null) {
+      this.direct.set(x, y);
+    } else if ((x >= 0) && (x < this.width) && (y >= 0) && (y < this.height)) {
+      if (this.count == this.cells.length) {
+        this.cells = Arrays.copyOf(this.cells, 2 * this.count);
+      } // if
+      this.cells[this.count++] = ((long) y << 32) | x;
+    } // if / else if
+  } // plot(int, int)
+
+  /**
+   * Store the cells collected. A bitset takes a bit for every cell of
+   * the grid, and runs take at most two ints for every cell collected
+   * plus one for every row, so we pick whichever is smaller.
+   *
+   * @return the cells.
+   */
+  CellMask mask() {
+    if (this.direct != null) {
+      return this.direct;
+    } // if
+    long sparseBytes = 4L * (this.height + 1) + 8L * this.count;
+    if (sparseBytes < bitsetBytes(this.width, this.height)) {
+      return new SparseMask(this.width, this.height, this.cells, this.count);
+    } // if
+    BitMask result = new BitMask(this.width, this.height);
+    for (int c = 0; c < this.count; c++) {
+      result.set((int) this.cells[c], (int) (this.cells[c] >>> 32));
+    } // for [c]
+    return result;
+  } // mask()
+
+  /**
+   * Determine how big a bitset for a grid would be.
+   *
+   * @param gridWidth
+   *   The number of columns.
+   * @param gridHeight
+   *   The number of rows.
+   *
+   * @return the size, in bytes.
+   */
+  static long bitsetBytes(int gridWidth, int gridHeight) {
+    return 8L * ((gridWidth + 63) >>> 6) * gridHeight;
+  } // bitsetBytes(int, int)
+} // class CellCollector
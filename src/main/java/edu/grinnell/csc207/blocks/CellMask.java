@@ -0,0 +1,55 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * A set of cells of a grid, such as the cells a stamp covers.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+interface CellMask {
+  /**
+   * Determine how many columns the grid has.
+   *
+   * @return the number of columns.
+   */
+  int width();
+
+  /**
+   * Determine how many rows the grid has.
+   *
+   * @return the number of rows.
+   */
+  int height();
+
+  /**
+   * Determine if a cell is in the set.
+   *
+   * @param x
+   *   The column of the cell.
+   * @param y
+   *   The row of the cell.
+   *
+   * @return true if it is and false otherwise.
+   */
+  boolean get(int x, int y);
+
+  /**
+   * Paint a character into the cells of one row that are in the set.
+   * Only columns from (inclusive) to to (exclusive) are painted, and
+   * column from goes at index offset of dest.
+   *
+   * @param y
+   *   The row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   * @param ch
+   *   The character to paint.
+   */
+  void paint(int y, int from, int to, char[] dest, int offset, char ch);
+} // interface CellMask
@@ -0,0 +1,22 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * The ways in which the cells of a rasterized line can connect.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public enum Connectivity {
+  /**
+   * Each cell shares a side with the next, so the line covers every
+   * cell it passes through. Where the line passes exactly through a
+   * corner, it covers one of the two cells beside the corner as well.
+   */
+  FOUR,
+
+  /**
+   * Each cell shares a side or a corner with the next, so the line
+   * covers one cell per column or per row, whichever is more.
+   */
+  EIGHT
+} // enum Connectivity
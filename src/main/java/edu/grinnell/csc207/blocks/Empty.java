@@ -55,6 +55,56 @@ public class Empty implements AsciiBlock {
     return 0;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    // Nothing to paint.
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    throw new IndexOutOfBoundsException("Empty block");
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    throw new IndexOutOfBoundsException("Empty block");
+  } // charAt(int, int)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
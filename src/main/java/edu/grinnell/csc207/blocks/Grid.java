@@ -63,15 +63,10 @@ public class Grid implements AsciiBlock {
    *   If the row is invalid.
    */
   public String row(int i) throws Exception {
-    String output = "";
-    if (i >= 0 && i < this.height()) {
-      for (int ct = 0; ct < this.hreps; ct++) {
-        output = output.concat(this.element.row(i % this.element.height()));
-      } // for [ct]
-    } else {
+    if (i < 0 || i >= this.height()) {
       throw new Exception("Invalid row " + i);
-    } // if / else
-    return output;
+    } // if
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -92,6 +87,116 @@ public class Grid implements AsciiBlock {
     return this.element.width() * this.hreps;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    int ew = this.element.width();
+    int eh = this.element.height();
+    if ((ew == 0) || (eh == 0) || (this.hreps == 0) || (this.vreps == 0)) {
+      return;
+    } // if
+    // Paint the element once, then copy it across and down.
+    this.element.renderInto(cells, x, y);
+    for (int i = 0; i < eh; i++) {
+      for (int ct = 1; ct < this.hreps; ct++) {
+        System.arraycopy(cells[y + i], x, cells[y + i], x + ct * ew, ew);
+      } // for [ct]
+    } // for [i]
+    for (int i = eh; i < eh * this.vreps; i++) {
+      System.arraycopy(cells[y + i - eh], x, cells[y + i], x, ew * this.hreps);
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    int ew = this.element.width();
+    int row = i % this.element.height();
+    // Where in dest a complete copy of the element's row sits, once we
+    // have painted one.
+    int tile = -1;
+    int col = from;
+    while (col < to) {
+      int at = offset + col - from;
+      if (tile >= 0) {
+        // Everything from tile to at is whole copies of the element's
+        // row, so copy as much of it as fits, doubling each time.
+        int len = Math.min(at - tile, to - col);
+        System.arraycopy(dest, tile, dest, at, len);
+        col += len;
+      } else {
+        int start = col % ew;
+        int len = Math.min(ew - start, to - col);
+        this.element.renderRow(row, start, start + len, dest, at);
+        if (len == ew) {
+          tile = at;
+        } // if
+        col += len;
+      } // if / else
+    } // while
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.element.charAt(i % this.element.height(), j % this.element.width());
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.element.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. A grid keeps no copy of its element and works out its size
+   * from the element's each time, so it only changes when the element
+   * does; the listener can listen to the element.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.element.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
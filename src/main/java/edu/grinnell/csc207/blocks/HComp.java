@@ -9,7 +9,7 @@ import java.util.Arrays;
  * @author Cade Johnston
  * @author Nicky Moreno Gonzalez
  */
-public class HComp implements AsciiBlock {
+public class HComp implements AsciiBlock, BlockListener {
   // +--------+------------------------------------------------------------
   // | Fields |
   // +--------+
@@ -19,6 +19,21 @@ public class HComp implements AsciiBlock {
    */
   AsciiBlock[] blocks;
 
+  /**
+   * The most recent measurements of the composition, if any.
+   */
+  volatile Layout measured;
+
+  /**
+   * The number of times a block in the composition has changed.
+   */
+  volatile long version;
+
+  /**
+   * The listeners to tell when the composition changes.
+   */
+  Listeners listeners = new Listeners();
+
   /**
    * How the blocks are aligned.
    */
@@ -42,6 +57,7 @@ public class HComp implements AsciiBlock {
       AsciiBlock rightBlock) {
     this.align = alignment;
     this.blocks = new AsciiBlock[] {leftBlock, rightBlock};
+    this.listen();
   } // HComp(VAlignment, AsciiBlock, AsciiBlock)
 
   /**
@@ -55,6 +71,7 @@ public class HComp implements AsciiBlock {
   public HComp(VAlignment alignment, AsciiBlock[] blocksToCompose) {
     this.align = alignment;
     this.blocks = Arrays.copyOf(blocksToCompose, blocksToCompose.length);
+    this.listen();
   } // HComp(Alignment, AsciiBLOCK[])
 
   // +---------+-----------------------------------------------------------
@@ -75,26 +92,7 @@ public class HComp implements AsciiBlock {
     if (i < 0 || i >= height()) {
       throw new Exception("Invalid row index.");
     } // if
-    String composedRow = ""; // Start with an empty string
-    for (AsciiBlock block : blocks) {
-      int blockHeight = block.height();
-      int rowIndex;
-      if (align == VAlignment.TOP) {
-        rowIndex = i;
-      } else if (align == VAlignment.CENTER) {
-        int topPadding = (height() - blockHeight) / 2;
-        rowIndex = i - topPadding;
-      } else {
-        int bottomPadding = height() - blockHeight;
-        rowIndex = i - bottomPadding;
-      } // else
-      if (rowIndex >= 0 && rowIndex < blockHeight) {
-        composedRow += block.row(rowIndex);
-      } else {
-        composedRow += " ".repeat(block.width());
-      } // else
-    } // for
-    return composedRow;
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -103,11 +101,7 @@ public class HComp implements AsciiBlock {
    * @return the number of rows
    */
   public int height() {
-    int maxHeight = 0;
-    for (AsciiBlock block : blocks) {
-      maxHeight = Math.max(maxHeight, block.height());
-    } // for
-    return maxHeight;
+    return this.layout().height;
   } // height()
 
   /**
@@ -116,13 +110,191 @@ public class HComp implements AsciiBlock {
    * @return the number of columns
    */
   public int width() {
-    int totalWidth = 0;
-    for (AsciiBlock block : blocks) {
-      totalWidth += block.width();
-    } // for
-    return totalWidth;
+    return this.layout().width;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    int h = this.height();
+    int col = x;
+    for (AsciiBlock block : this.blocks) {
+      int blockHeight = block.height();
+      int blockWidth = block.width();
+      int top = this.topPadding(blockHeight, h);
+      for (int i = 0; i < top; i++) {
+        Arrays.fill(cells[y + i], col, col + blockWidth, ' ');
+      } // for [i]
+      block.renderInto(cells, col, y + top);
+      for (int i = top + blockHeight; i < h; i++) {
+        Arrays.fill(cells[y + i], col, col + blockWidth, ' ');
+      } // for [i]
+      col += blockWidth;
+    } // for
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    if (from >= to) {
+      return;
+    } // if
+    Layout layout = this.layout();
+    for (int b = layout.owner(from); (b < this.blocks.length) && (layout.starts[b] < to); b++) {
+      AsciiBlock block = this.blocks[b];
+      int start = layout.starts[b];
+      int lo = Math.max(from, start);
+      int hi = Math.min(to, layout.starts[b + 1]);
+      int rowIndex = i - this.topPadding(block.height(), layout.height);
+      if (rowIndex >= 0 && rowIndex < block.height()) {
+        block.renderRow(rowIndex, lo - start, hi - start, dest, offset + lo - from);
+      } else {
+        Arrays.fill(dest, offset + lo - from, offset + hi - from, ' ');
+      } // if / else
+    } // for [b]
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    Layout layout = this.layout();
+    int b = layout.owner(j);
+    AsciiBlock block = this.blocks[b];
+    int rowIndex = i - this.topPadding(block.height(), layout.height);
+    if (rowIndex >= 0 && rowIndex < block.height()) {
+      return block.charAt(rowIndex, j - layout.starts[b]);
+    } // if
+    return ' ';
+  } // charAt(int, int)
+
+  /**
+   * Determine how many blank rows sit above a block of the given height
+   * within this composition.
+   *
+   * @param blockHeight
+   *   The height of one of the composed blocks.
+   * @param totalHeight
+   *   The height of the composition.
+   *
+   * @return the number of blank rows above the block.
+   */
+  int topPadding(int blockHeight, int totalHeight) {
+    if (this.align == VAlignment.TOP) {
+      return 0;
+    } else if (this.align == VAlignment.CENTER) {
+      return (totalHeight - blockHeight) / 2;
+    } else {
+      return totalHeight - blockHeight;
+    } // if / else if / else
+  } // topPadding(int, int)
+
+  /**
+   * Get the measurements of the composition, measuring the blocks again
+   * only if one of them has changed size since we last did so. The
+   * measurements include the first column of each block.
+   *
+   * @return the current measurements.
+   */
+  Layout layout() {
+    Layout result = this.measured;
+    if (result != null) {
+      return result;
+    } // if
+    long seen = this.version;
+    int[] starts = new int[this.blocks.length + 1];
+    int maxHeight = 0;
+    for (int b = 0; b < this.blocks.length; b++) {
+      starts[b + 1] = starts[b] + this.blocks[b].width();
+      maxHeight = Math.max(maxHeight, this.blocks[b].height());
+    } // for [b]
+    result = new Layout(starts[this.blocks.length], maxHeight, starts);
+    // If something changed while we were measuring, don't keep the
+    // measurements around.
+    if (this.version == seen) {
+      this.measured = result;
+    } // if
+    return result;
+  } // layout()
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.listeners.add(listener);
+  } // addListener(BlockListener)
+
+  /**
+   * Note that one of the blocks in the composition has changed. We
+   * only need to measure again if it changed size.
+   *
+   * @param source
+   *   The block that changed.
+   * @param resized
+   *   Whether the width or height of the block may have changed.
+   */
+  public void blockChanged(AsciiBlock source, boolean resized) {
+    this.version++;
+    if (resized) {
+      this.measured = null;
+    } // if
+    this.listeners.fire(source, resized);
+  } // blockChanged(AsciiBlock, boolean)
+
+  /**
+   * Listen to each of the blocks in the composition.
+   */
+  void listen() {
+    for (AsciiBlock block : this.blocks) {
+      block.addListener(this);
+    } // for [block]
+  } // listen()
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
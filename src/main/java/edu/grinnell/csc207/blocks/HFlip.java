@@ -46,12 +46,10 @@ public class HFlip implements AsciiBlock {
    *   If the row is invalid.
    */
   public String row(int i) throws Exception {
-    String originalRow = block.row(i);
-    String reversedRow = "";
-    for (int j = originalRow.length() - 1; j >= 0; j--) {
-      reversedRow += originalRow.charAt(j);
-    } // for
-    return reversedRow;
+    if ((i < 0) || (i >= this.height())) {
+      throw new Exception("Invalid row " + i);
+    } // if
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -72,6 +70,93 @@ public class HFlip implements AsciiBlock {
     return block.width();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    this.block.renderInto(cells, x, y);
+    int w = this.block.width();
+    for (int i = 0; i < this.block.height(); i++) {
+      char[] row = cells[y + i];
+      for (int left = x, right = x + w - 1; left < right; left++, right--) {
+        char tmp = row[left];
+        row[left] = row[right];
+        row[right] = tmp;
+      } // for [left/right]
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    int w = this.block.width();
+    this.block.renderRow(i, w - to, w - from, dest, offset);
+    for (int left = offset, right = offset + to - from - 1; left < right; left++, right--) {
+      char tmp = dest[left];
+      dest[left] = dest[right];
+      dest[right] = tmp;
+    } // for [left/right]
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.block.charAt(i, this.block.width() - 1 - j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.block.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. Flipping reads the original block afresh for every row,
+   * so the listener can listen to the original block.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.block.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
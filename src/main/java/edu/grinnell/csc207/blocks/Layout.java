@@ -0,0 +1,83 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * The measurements of a composition of blocks, taken at one point in
+ * time. Layouts are immutable, so a composite may share its current
+ * layout between threads.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class Layout {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The width of the composition.
+   */
+  final int width;
+
+  /**
+   * The height of the composition.
+   */
+  final int height;
+
+  /**
+   * Where each block starts along the direction of composition (rows
+   * for a vertical composition, columns for a horizontal one). There
+   * is one more entry than there are blocks; the last is the total.
+   */
+  final int[] starts;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Record a set of measurements.
+   *
+   * @param layoutWidth
+   *   The width of the composition.
+   * @param layoutHeight
+   *   The height of the composition.
+   * @param blockStarts
+   *   Where each block starts, followed by the total extent.
+   */
+  Layout(int layoutWidth, int layoutHeight, int[] blockStarts) {
+    this.width = layoutWidth;
+    this.height = layoutHeight;
+    this.starts = blockStarts;
+  } // Layout(int, int, int[])
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find the block that covers a position along the direction of
+   * composition, using a binary search of the starting positions.
+   * Blocks of size zero never cover anything, so they are skipped.
+   *
+   * @param pos
+   *   The row or column to look for.
+   *
+   * @return the index of the block that covers pos.
+   *
+   * @pre
+   *   0 <= pos < the total extent of the composition.
+   */
+  int owner(int pos) {
+    int lo = 0;
+    int hi = this.starts.length - 2;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (this.starts[mid] <= pos) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      } // if / else
+    } // while
+    return lo;
+  } // owner(int)
+} // class Layout
@@ -17,6 +17,16 @@ public class Line implements AsciiBlock {
    */
   String line;
 
+  /**
+   * The number of times the block has been changed.
+   */
+  volatile long version;
+
+  /**
+   * The listeners to tell when the block changes.
+   */
+  Listeners listeners = new Listeners();
+
   // +--------------+------------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -52,6 +62,17 @@ public class Line implements AsciiBlock {
     return this.line;
   } // row(int)
 
+  /**
+   * Get one row from the block without checking the row number.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   */
+  public String rowUnchecked(int i) {
+    return this.line;
+  } // rowUnchecked(int)
+
   /**
    * Determine how many rows are in the block.
    *
@@ -70,6 +91,77 @@ public class Line implements AsciiBlock {
     return this.line.length();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    this.line.getChars(0, this.line.length(), cells[y], x);
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.line.getChars(from, to, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.line.charAt(j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.listeners.add(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
@@ -110,6 +202,20 @@ public class Line implements AsciiBlock {
    *   The new contents of the line.
    */
   public void update(String newContents) {
+    boolean resized = newContents.length() != this.line.length();
     this.line = newContents;
+    this.changed(resized);
   } // update(String)
+
+  /**
+   * Note that the block has changed, so that anything caching its
+   * contents or size knows to look again.
+   *
+   * @param resized
+   *   Whether the width or height of the block changed.
+   */
+  void changed(boolean resized) {
+    this.version++;
+    this.listeners.fire(this, resized);
+  } // changed(boolean)
 } // class Line
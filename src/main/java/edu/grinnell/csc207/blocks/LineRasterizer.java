@@ -0,0 +1,105 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * Integer-only rasterization of lines and polylines onto a grid of
+ * cells, in the manner of Bresenham.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class LineRasterizer {
+  // +------------+--------------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Something that takes the cells of a line.
+   */
+  public interface Plot {
+    /**
+     * Take one cell. Cells may fall outside any particular grid, so
+     * the plot must check.
+     *
+     * @param x
+     *   The column of the cell.
+     * @param y
+     *   The row of the cell.
+     */
+    void plot(int x, int y);
+  } // interface Plot
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Plot the cells of a line, including both ends.
+   *
+   * @param x0
+   *   The column of the start.
+   * @param y0
+   *   The row of the start.
+   * @param x1
+   *   The column of the end.
+   * @param y1
+   *   The row of the end.
+   * @param connectivity
+   *   How cells of the line connect.
+   * @param plot
+   *   Where to plot the cells.
+   *
+   * @return the number of cells plotted.
+   */
+  public static int line(int x0, int y0, int x1, int y1,
+      Connectivity connectivity, Plot plot) {
+    int dx = Math.abs(x1 - x0);
+    int dy = Math.abs(y1 - y0);
+    int sx = (x0 < x1) ? 1 : -1;
+    int sy = (y0 < y1) ? 1 : -1;
+    int x = x0;
+    int y = y0;
+    plot.plot(x, y);
+    if (connectivity == Connectivity.EIGHT) {
+      // The usual walk: err measures how far the line is from the
+      // cell, scaled so that it stays an integer, and tells us whether
+      // to step across, down, or both.
+      long err = (long) dx - dy;
+      for (int steps = Math.max(dx, dy); steps > 0; steps--) {
+        long e2 = 2 * err;
+        if (e2 > -dy) {
+          err -= dy;
+          x += sx;
+        } // if
+        if (e2 < dx) {
+          err += dx;
+          y += sy;
+        } // if
+        plot.plot(x, y);
+      } // for [steps]
+      return Math.max(dx, dy) + 1;
+    } else {
+      // Plot every cell the line passes through, stepping across or
+      // down depending on which side of the cell the line leaves
+      // through first. After i steps across and j down, the line
+      // leaves through the side when (i + 1/2) / dx < (j + 1/2) / dy,
+      // that is, when err = (2i + 1) dy - (2j + 1) dx is negative. If
+      // err is zero, the line leaves exactly through a corner; we still
+      // take one step at a time, across first when heading right and
+      // down first when heading left, so that a line covers the same
+      // cells whichever end it starts from. (Flipping a line top to
+      // bottom flips its cells, but flipping it left to right need not.)
+      long err = (long) dy - dx;
+      for (int steps = dx + dy; steps > 0; steps--) {
+        if ((err < 0) || ((err == 0) && (sx > 0))) {
+          err += 2L * dy;
+          x += sx;
+        } else {
+          err -= 2L * dx;
+          y += sy;
+        } // if / else
+        plot.plot(x, y);
+      } // for [steps]
+      return dx + dy + 1;
+    } // if / else
+  } // line(int, int, int, int, Connectivity, Plot)
+} // class LineRasterizer
@@ -85,6 +85,17 @@ public class Lines implements AsciiBlock {
     return this.lines[i];
   } // row(int)
 
+  /**
+   * Get one row from the block without checking the row number.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   */
+  public String rowUnchecked(int i) {
+    return this.lines[i];
+  } // rowUnchecked(int)
+
   /**
    * Determine how many rows are in the block.
    *
@@ -103,6 +114,58 @@ public class Lines implements AsciiBlock {
     return this.width;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    for (int i = 0; i < this.lines.length; i++) {
+      this.lines[i].getChars(0, this.width, cells[y + i], x);
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.lines[i].getChars(from, to, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.lines[i].charAt(j);
+  } // charAt(int, int)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
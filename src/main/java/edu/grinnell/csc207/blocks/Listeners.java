@@ -0,0 +1,57 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * The listeners to one block. Listeners are held weakly, and the ones
+ * that have been collected are dropped as we go.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class Listeners {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The listeners, as the keys of a weak map, so that adding one takes
+   * the same time however many there are (say, when many short-lived
+   * stamps share one background that never changes).
+   */
+  WeakHashMap<BlockListener, Boolean> listeners = new WeakHashMap<>();
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Add a listener. Adding a listener that is already present has no
+   * effect.
+   *
+   * @param listener
+   *   The listener to add.
+   */
+  synchronized void add(BlockListener listener) {
+    this.listeners.put(listener, Boolean.TRUE);
+  } // add(BlockListener)
+
+  /**
+   * Tell every listener that a block has changed.
+   *
+   * @param source
+   *   The block that changed.
+   * @param resized
+   *   Whether the width or height of the block may have changed.
+   */
+  void fire(AsciiBlock source, boolean resized) {
+    ArrayList<BlockListener> live;
+    synchronized (this) {
+      live = new ArrayList<>(this.listeners.keySet());
+    } // synchronized
+    for (BlockListener listener : live) {
+      listener.blockChanged(source, resized);
+    } // for [listener]
+  } // fire(AsciiBlock, boolean)
+} // class Listeners
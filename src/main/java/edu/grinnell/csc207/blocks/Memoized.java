@@ -0,0 +1,232 @@
+package edu.grinnell.csc207.blocks;
+
+/**
+ * A block that remembers the rows of another block. Wrap a subtree in
+ * a Memoized block when it is rendered more than once per frame (say,
+ * because it appears in several places). The remembered rows are
+ * thrown away as soon as the version of the underlying block changes,
+ * so the rows are always current.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class Memoized implements AsciiBlock {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The original block.
+   */
+  AsciiBlock block;
+
+  /**
+   * The rows we remember, along with the version they came from.
+   */
+  volatile Rows remembered;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a new block that remembers the rows of another.
+   *
+   * @param original
+   *   The original block.
+   */
+  public Memoized(AsciiBlock original) {
+    this.block = original;
+  } // Memoized(AsciiBlock)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get one row from the block.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   *
+   * @exception Exception
+   *   If the row is invalid.
+   */
+  public String row(int i) throws Exception {
+    if ((i < 0) || (i >= this.height())) {
+      throw new Exception("Invalid row " + i);
+    } // if
+    return this.rowUnchecked(i);
+  } // row(int)
+
+  /**
+   * Get one row from the block without checking the row number,
+   * remembering it for next time.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   */
+  public String rowUnchecked(int i) {
+    Rows rows = this.current();
+    String result = rows.rows[i];
+    if (result == null) {
+      result = this.block.rowUnchecked(i);
+      rows.rows[i] = result;
+    } // if
+    return result;
+  } // rowUnchecked(int)
+
+  /**
+   * Determine how many rows are in the block.
+   *
+   * @return the number of rows
+   */
+  public int height() {
+    return this.block.height();
+  } // height()
+
+  /**
+   * Determine how many columns are in the block.
+   *
+   * @return the number of columns
+   */
+  public int width() {
+    return this.block.width();
+  } // width()
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.rowUnchecked(i).getChars(from, to, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    String row = this.current().rows[i];
+    return (row == null) ? this.block.charAt(i, j) : row.charAt(j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.block.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. We notice changes through the version of the original
+   * block, so the listener simply listens to the original block.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.block.addListener(listener);
+  } // addListener(BlockListener)
+
+  /**
+   * Get the remembered rows, forgetting them first if the original
+   * block has changed since we started remembering.
+   *
+   * @return the remembered rows for the current version.
+   */
+  Rows current() {
+    long version = this.block.version();
+    Rows result = this.remembered;
+    if ((result == null) || (result.version != version)) {
+      result = new Rows(version, this.block.height());
+      this.remembered = result;
+    } // if
+    return result;
+  } // current()
+
+  /**
+   * Determine if another block is structurally equivalent to this block.
+   *
+   * @param other
+   *   The block to compare to this block.
+   *
+   * @return true if the two blocks are structurally equivalent and
+   *    false otherwise.
+   */
+  public boolean eqv(AsciiBlock other) {
+    return ((other instanceof Memoized) && (this.eqv((Memoized) other)));
+  } // eqv(AsciiBlock)
+
+  /**
+   * Determine if another Memoized block is structurally equivalent to
+   * this block.
+   *
+   * @param other
+   *   The block to compare to this block.
+   *
+   * @return true if the two blocks are structurally equivalent and
+   *    false otherwise.
+   */
+  public boolean eqv(Memoized other) {
+    return this.block.eqv(other.block);
+  } // eqv(Memoized)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The rows remembered for one version of the original block. Rows
+   * that have not been asked for yet are null.
+   */
+  static class Rows {
+    /**
+     * The version of the original block the rows came from.
+     */
+    final long version;
+
+    /**
+     * The rows.
+     */
+    final String[] rows;
+
+    /**
+     * Start remembering the rows of one version of a block.
+     *
+     * @param blockVersion
+     *   The version of the block.
+     * @param blockHeight
+     *   The number of rows in the block.
+     */
+    Rows(long blockVersion, int blockHeight) {
+      this.version = blockVersion;
+      this.rows = new String[blockHeight];
+    } // Rows(long, int)
+  } // class Rows
+} // class Memoized
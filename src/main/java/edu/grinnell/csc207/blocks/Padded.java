@@ -1,5 +1,7 @@
 package edu.grinnell.csc207.blocks;
 
+import java.util.Arrays;
+
 /**
  * A padded ASCII block.
  *
@@ -90,34 +92,7 @@ public class Padded implements AsciiBlock {
     if ((i < 0) || (i >= this.height())) {
       throw new Exception("Invalid row " + i);
     } // if
-    int smallerPadV = (this.height() - this.block.height()) / 2;
-    int largerPadV = (this.height() - this.block.height() + 1) / 2;
-    int smallerPadH = (this.height() - this.block.height()) / 2;
-    int largerPadH = (this.height() - this.block.height() + 1) / 2;
-    if ((this.valign.equals(VAlignment.TOP)) && (i < smallerPadV + largerPadV)) {
-      return this.pad.repeat(this.width());
-    } else if ((this.valign.equals(VAlignment.CENTER)) && ((i < smallerPadV)
-              || (i > smallerPadV + this.height()))) {
-      return this.pad.repeat(this.width());
-    } else if ((this.valign.equals(VAlignment.BOTTOM)) && (i > this.height())) {
-      return this.pad.repeat(this.width());
-    } else {
-      String output;
-      if (this.valign.equals(VAlignment.TOP)) {
-        output = this.block.row(i);
-      } else if (this.valign.equals(VAlignment.CENTER)) {
-        output = this.block.row(i - smallerPadV);
-      } else {
-        output = this.block.row(i - smallerPadV - largerPadV);
-      } // if / else if / else
-      if (this.halign.equals(HAlignment.LEFT)) {
-        return output + this.pad.repeat(smallerPadH + largerPadH);
-      } else if (this.halign.equals(HAlignment.CENTER)) {
-        return this.pad.repeat(smallerPadH) + output + this.pad.repeat(largerPadH);
-      } else {
-        return this.pad.repeat(smallerPadH + largerPadH) + output;
-      } // if / else if / else
-    } // if / else if / else if / else
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -138,6 +113,157 @@ public class Padded implements AsciiBlock {
     return this.width;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    char ch = this.pad.charAt(0);
+    int top = this.topPadding();
+    int left = this.leftPadding();
+    int blockHeight = this.block.height();
+    int blockWidth = this.block.width();
+    if ((top < 0) || (left < 0) || (top + blockHeight > this.height)
+        || (left + blockWidth > this.width)) {
+      // The padding is too small for the block, so only part of it
+      // shows; paint it clipped, a row at a time.
+      int lo = Math.max(0, top);
+      int hi = Math.min(this.height, top + blockHeight);
+      for (int i = 0; i < this.height; i++) {
+        if ((i < lo) || (i >= hi)) {
+          Arrays.fill(cells[y + i], x, x + this.width, ch);
+        } else {
+          this.renderRow(i, 0, this.width, cells[y + i], x);
+        } // if / else
+      } // for [i]
+      return;
+    } // if
+    for (int i = 0; i < this.height; i++) {
+      if ((i < top) || (i >= top + blockHeight)) {
+        Arrays.fill(cells[y + i], x, x + this.width, ch);
+      } else {
+        Arrays.fill(cells[y + i], x, x + left, ch);
+        Arrays.fill(cells[y + i], x + left + blockWidth, x + this.width, ch);
+      } // if / else
+    } // for [i]
+    this.block.renderInto(cells, x + left, y + top);
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    char ch = this.pad.charAt(0);
+    int top = this.topPadding();
+    if ((i < top) || (i >= top + this.block.height())) {
+      Arrays.fill(dest, offset, offset + to - from, ch);
+    } else {
+      int left = this.leftPadding();
+      // Clamp the block's columns to the ones we were asked for.
+      int lo = Math.min(to, Math.max(from, left));
+      int hi = Math.min(to, Math.max(from, left + this.block.width()));
+      Arrays.fill(dest, offset, offset + lo - from, ch);
+      if (lo < hi) {
+        this.block.renderRow(i - top, lo - left, hi - left, dest, offset + lo - from);
+      } // if
+      Arrays.fill(dest, offset + hi - from, offset + to - from, ch);
+    } // if / else
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    int row = i - this.topPadding();
+    int col = j - this.leftPadding();
+    if ((row >= 0) && (row < this.block.height()) && (col >= 0) && (col < this.block.width())) {
+      return this.block.charAt(row, col);
+    } // if
+    return this.pad.charAt(0);
+  } // charAt(int, int)
+
+  /**
+   * Determine how many rows of padding sit above the original block.
+   *
+   * @return the number of padding rows above the block.
+   */
+  int topPadding() {
+    if (this.valign.equals(VAlignment.TOP)) {
+      return 0;
+    } else if (this.valign.equals(VAlignment.CENTER)) {
+      return (this.height - this.block.height()) / 2;
+    } else {
+      return this.height - this.block.height();
+    } // if / else if / else
+  } // topPadding()
+
+  /**
+   * Determine how many columns of padding sit to the left of the
+   * original block.
+   *
+   * @return the number of padding columns to the left of the block.
+   */
+  int leftPadding() {
+    if (this.halign.equals(HAlignment.LEFT)) {
+      return 0;
+    } else if (this.halign.equals(HAlignment.CENTER)) {
+      return (this.width - this.block.width()) / 2;
+    } else {
+      return this.width - this.block.width();
+    } // if / else if / else
+  } // leftPadding()
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.block.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The padding around the block is worked out afresh each
+   * time, so only a change to the block itself changes what we show;
+   * the listener can listen to the block.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.block.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
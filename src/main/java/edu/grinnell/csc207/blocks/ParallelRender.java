@@ -0,0 +1,254 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rendering the rows of a block in parallel. The range of rows is split
+ * in half until each piece is small enough, and each piece paints its
+ * rows straight into the shared grid, so the result needs no assembly.
+ *
+ * Rows of a block are independent as long as nothing changes while we
+ * render. To be safe around the mutable blocks (Line and Rect), we
+ * compare the version and size of the block before and after; if they
+ * moved, we throw the grid away and render again on the calling
+ * thread, or, when rendering only some of the rows, tell the caller.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class ParallelRender extends RecursiveAction {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The version of the serialized form (RecursiveAction is
+   * Serializable).
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Roughly how many cells each task should paint. Below this, forking
+   * costs more than it saves.
+   */
+  static final int CELLS_PER_TASK = 1 << 14;
+
+  /**
+   * Roughly how many cells callers that only need a few rows at a time
+   * (printing, comparing) should render at once. Big enough to keep a
+   * pool busy, small enough that huge blocks never need the whole
+   * frame in memory.
+   */
+  static final int CELLS_PER_BAND = 1 << 20;
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The block.
+   */
+  AsciiBlock block;
+
+  /**
+   * The grid we paint into.
+   */
+  char[][] cells;
+
+  /**
+   * The row of the block that goes in the first row of the grid.
+   */
+  int base;
+
+  /**
+   * The first row to paint.
+   */
+  int from;
+
+  /**
+   * The row after the last one to paint.
+   */
+  int to;
+
+  /**
+   * The most rows one task paints without splitting.
+   */
+  int grain;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Set up a task to paint some rows of a block.
+   *
+   * @param source
+   *   The block.
+   * @param grid
+   *   The grid to paint into.
+   * @param start
+   *   The row of the block that goes in the first row of the grid.
+   * @param first
+   *   The first row to paint.
+   * @param last
+   *   The row after the last one to paint.
+   * @param rowsPerTask
+   *   The most rows one task paints without splitting.
+   */
+  ParallelRender(AsciiBlock source, char[][] grid, int start, int first, int last,
+      int rowsPerTask) {
+    this.block = source;
+    this.cells = grid;
+    this.base = start;
+    this.from = first;
+    this.to = last;
+    this.grain = rowsPerTask;
+  } // ParallelRender(AsciiBlock, char[][], int, int, int, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Render a whole block into a fresh grid, using a pool of threads if
+   * the block is big enough to be worth it.
+   *
+   * @param block
+   *   The block to render.
+   * @param pool
+   *   The threads to use.
+   *
+   * @return a grid with one array of characters per row of the block.
+   */
+  static char[][] render(AsciiBlock block, ForkJoinPool pool) {
+    int width = block.width();
+    int height = block.height();
+    int grain = Math.max(1, CELLS_PER_TASK / Math.max(1, width));
+    if ((height <= grain) || (pool.getParallelism() <= 1)) {
+      return AsciiBlock.render(block);
+    } // if
+    long version = block.version();
+    char[][] cells = new char[height][width];
+    try {
+      pool.invoke(new ParallelRender(block, cells, 0, 0, height, grain));
+    } catch (RuntimeException e) {
+      // Most likely the block changed size under us; we check below.
+      version = -1;
+    } // try/catch
+    if ((version != block.version()) || (width != block.width())
+        || (height != block.height())) {
+      return AsciiBlock.render(block);
+    } // if
+    return cells;
+  } // render(AsciiBlock, ForkJoinPool)
+
+  /**
+   * Determine how many rows of a block of a given width make up one
+   * band for renderRows.
+   *
+   * @param width
+   *   The width of the block.
+   *
+   * @return the number of rows in a band, at least 1.
+   */
+  static int bandRows(int width) {
+    return Math.max(1, CELLS_PER_BAND / Math.max(1, width));
+  } // bandRows(int)
+
+  /**
+   * Render some rows of a block into the first rows of an existing
+   * grid, using a pool of threads if there are enough of them to be
+   * worth it. Row top of the block lands in cells[0]. The rows are only
+   * good if, both before and after we render, the block is still the
+   * one the caller has been working from: as wide as the grid, as tall
+   * and at the same version. If not, we say so rather than render
+   * again, since the caller may already have used other rows of the
+   * old block.
+   *
+   * @param block
+   *   The block to render.
+   * @param version
+   *   The version of the block the caller is working from.
+   * @param height
+   *   The height of the block the caller is working from.
+   * @param cells
+   *   The grid to paint into, with rows as wide as the block.
+   * @param top
+   *   The first row to render.
+   * @param bottom
+   *   The row after the last one to render.
+   * @param pool
+   *   The threads to use.
+   *
+   * @return true if the rows are those of the block the caller is
+   *   working from, false if the block changed.
+   *
+   * @exception IllegalStateException
+   *   If some row of the block cannot be produced.
+   */
+  static boolean renderRows(AsciiBlock block, long version, int height, char[][] cells,
+      int top, int bottom, ForkJoinPool pool) {
+    int width = cells[0].length;
+    if (!unchanged(block, version, width, height)) {
+      return false;
+    } // if
+    int grain = Math.max(1, CELLS_PER_TASK / Math.max(1, width));
+    try {
+      if ((bottom - top <= grain) || (pool.getParallelism() <= 1)) {
+        block.renderInto(cells, 0, 0, top, 0, bottom, width);
+      } else {
+        pool.invoke(new ParallelRender(block, cells, top, top, bottom, grain));
+      } // if / else
+    } catch (RuntimeException e) {
+      // A block that changes size under us may well overrun the grid,
+      // but one that has not changed has a real problem.
+      if (unchanged(block, version, width, height)) {
+        throw e;
+      } // if
+      return false;
+    } // try/catch
+    return unchanged(block, version, width, height);
+  } // renderRows(AsciiBlock, long, int, char[][], int, int, ForkJoinPool)
+
+  /**
+   * Determine whether a block still has a given version and size.
+   *
+   * @param block
+   *   The block.
+   * @param version
+   *   The version it should have.
+   * @param width
+   *   The width it should have.
+   * @param height
+   *   The height it should have.
+   *
+   * @return true if the block has that version, width and height.
+   */
+  static boolean unchanged(AsciiBlock block, long version, int width, int height) {
+    return (block.version() == version) && (block.width() == width)
+        && (block.height() == height);
+  } // unchanged(AsciiBlock, long, int, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Paint our rows, splitting them with another task if there are too
+   * many.
+   */
+  @Override
+  protected void compute() {
+    if (this.to - this.from <= this.grain) {
+      for (int i = this.from; i < this.to; i++) {
+        this.block.renderRow(i, this.cells[i - this.base], 0);
+      } // for [i]
+    } else {
+      int mid = (this.from + this.to) >>> 1;
+      invokeAll(
+          new ParallelRender(this.block, this.cells, this.base, this.from, mid, this.grain),
+          new ParallelRender(this.block, this.cells, this.base, mid, this.to, this.grain));
+    } // if / else
+  } // compute()
+} // class ParallelRender
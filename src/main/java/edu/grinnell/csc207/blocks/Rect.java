@@ -22,6 +22,16 @@ public class Rect implements AsciiBlock {
    */
   int height;
 
+  /**
+   * The number of times the block has been changed.
+   */
+  volatile long version;
+
+  /**
+   * The listeners to tell when the block changes.
+   */
+  Listeners listeners = new Listeners();
+
   // +--------------+------------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -72,6 +82,17 @@ public class Rect implements AsciiBlock {
     return this.row;
   } // row(int)
 
+  /**
+   * Get one row from the block without checking the row number.
+   *
+   * @param i the number of the row
+   *
+   * @return row i.
+   */
+  public String rowUnchecked(int i) {
+    return this.row;
+  } // rowUnchecked(int)
+
   /**
    * Determine how many rows are in the block.
    *
@@ -90,6 +111,79 @@ public class Rect implements AsciiBlock {
     return this.row.length();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    for (int i = 0; i < this.height; i++) {
+      this.row.getChars(0, this.row.length(), cells[y + i], x);
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.row.getChars(from, to, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.row.charAt(j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.listeners.add(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
@@ -125,6 +219,7 @@ public class Rect implements AsciiBlock {
    */
   public void wider() {
     this.row = this.row + this.row.substring(0, 1);
+    this.changed(true);
   } // wider()
 
   /**
@@ -135,6 +230,7 @@ public class Rect implements AsciiBlock {
   public void narrower() {
     if (this.row.length() > 1) {
       this.row = this.row.substring(1);
+      this.changed(true);
     } // if
   } // narrower()
 
@@ -143,6 +239,7 @@ public class Rect implements AsciiBlock {
    */
   public void taller() {
     this.height += 1;
+    this.changed(true);
   } // taller()
 
   /**
@@ -153,7 +250,19 @@ public class Rect implements AsciiBlock {
   public void shorter() {
     if (this.height >= 2) {
       this.height -= 1;
+      this.changed(true);
     } // if
   } // shorter()
 
+  /**
+   * Note that the block has changed, so that anything caching its
+   * contents or size knows to look again.
+   *
+   * @param resized
+   *   Whether the width or height of the block changed.
+   */
+  void changed(boolean resized) {
+    this.version++;
+    this.listeners.fire(this, resized);
+  } // changed(boolean)
 } // class Rect
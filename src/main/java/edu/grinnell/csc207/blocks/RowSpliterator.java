@@ -0,0 +1,128 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over a range of rows of a block. Rows are only built
+ * as they are asked for, and splitting halves the range, so parallel
+ * streams over tall blocks get evenly sized pieces.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class RowSpliterator implements Spliterator<String> {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The block.
+   */
+  AsciiBlock block;
+
+  /**
+   * The next row.
+   */
+  int next;
+
+  /**
+   * The row after the last one.
+   */
+  int end;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a spliterator over some rows of a block.
+   *
+   * @param source
+   *   The block.
+   * @param from
+   *   The first row.
+   * @param to
+   *   The row after the last one.
+   */
+  RowSpliterator(AsciiBlock source, int from, int to) {
+    this.block = source;
+    this.next = from;
+    this.end = to;
+  } // RowSpliterator(AsciiBlock, int, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Hand the next row, if there is one, to an action.
+   *
+   * @param action
+   *   What to do with the row.
+   *
+   * @return true if there was a row and false otherwise.
+   */
+  @Override
+  public boolean tryAdvance(Consumer<? super String> action) {
+    if (this.next >= this.end) {
+      return false;
+    } // if
+    action.accept(this.block.rowUnchecked(this.next++));
+    return true;
+  } // tryAdvance(Consumer)
+
+  /**
+   * Hand each of the remaining rows to an action.
+   *
+   * @param action
+   *   What to do with each row.
+   */
+  @Override
+  public void forEachRemaining(Consumer<? super String> action) {
+    int from = this.next;
+    this.next = this.end;
+    for (int i = from; i < this.end; i++) {
+      action.accept(this.block.rowUnchecked(i));
+    } // for [i]
+  } // forEachRemaining(Consumer)
+
+  /**
+   * Give the first half of the remaining rows to a new spliterator,
+   * keeping the second half.
+   *
+   * @return the new spliterator, or null if there are too few rows to
+   *   split.
+   */
+  @Override
+  public Spliterator<String> trySplit() {
+    int mid = (this.next + this.end) >>> 1;
+    if (mid <= this.next) {
+      return null;
+    } // if
+    RowSpliterator prefix = new RowSpliterator(this.block, this.next, mid);
+    this.next = mid;
+    return prefix;
+  } // trySplit()
+
+  /**
+   * Determine how many rows remain.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public long estimateSize() {
+    return this.end - this.next;
+  } // estimateSize()
+
+  /**
+   * Describe the rows: in order, of known size (even after splitting),
+   * and never null.
+   *
+   * @return the characteristics.
+   */
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL;
+  } // characteristics()
+} // class RowSpliterator
@@ -0,0 +1,166 @@
+package edu.grinnell.csc207.blocks;
+
+import java.util.Arrays;
+
+/**
+ * A set of cells of a grid stored as runs of columns, row by row (in
+ * compressed sparse row form). The memory used grows with the number
+ * of runs rather than the size of the grid, and rows with no cells
+ * cost nothing to paint.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+class SparseMask implements CellMask {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  final int width;
+
+  /**
+   * The number of rows.
+   */
+  final int height;
+
+  /**
+   * Where the runs of each row start: the runs of row y are numbers
+   * rowStarts[y] (inclusive) to rowStarts[y + 1] (exclusive).
+   */
+  final int[] rowStarts;
+
+  /**
+   * The runs, in order, as the first column of the run followed by the
+   * column after the last.
+   */
+  final int[] runs;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a set from some cells.
+   *
+   * @param maskWidth
+   *   The number of columns.
+   * @param maskHeight
+   *   The number of rows.
+   * @param cells
+   *   The cells, each as its row times 2^32 plus its column, all within
+   *   the grid, in any order and possibly repeated. The array is sorted
+   *   in place.
+   * @param count
+   *   The number of cells in the array.
+   */
+  SparseMask(int maskWidth, int maskHeight, long[] cells, int count) {
+    this.width = maskWidth;
+    this.height = maskHeight;
+    this.rowStarts = new int[maskHeight + 1];
+    Arrays.sort(cells, 0, count);
+    int[] found = new int[2 * Math.max(count, 1)];
+    int used = 0;
+    int row = 0;
+    for (int c = 0; c < count; c++) {
+      int y = (int) (cells[c] >>> 32);
+      int x = (int) cells[c];
+      // Runs in rows we have passed over end here.
+      while (row < y) {
+        this.rowStarts[++row] = used / 2;
+      } // while
+      if ((used > this.rowStarts[row] * 2) && (x <= found[used - 1])) {
+        // The cell extends (or repeats part of) the last run.
+        found[used - 1] = Math.max(found[used - 1], x + 1);
+      } else {
+        found[used++] = x;
+        found[used++] = x + 1;
+      } // if / else
+    } // for [c]
+    while (row < maskHeight) {
+      this.rowStarts[++row] = used / 2;
+    } // while
+    this.runs = Arrays.copyOf(found, used);
+  } // SparseMask(int, int, long[], int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine how many columns the grid has.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Determine how many rows the grid has.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine if a cell is in the set.
+   *
+   * @param x
+   *   The column of the cell.
+   * @param y
+   *   The row of the cell.
+   *
+   * @return true if it is and false otherwise.
+   */
+  public boolean get(int x, int y) {
+    if ((y < 0) || (y >= this.height)) {
+      return false;
+    } // if
+    for (int r = this.rowStarts[y]; r < this.rowStarts[y + 1]; r++) {
+      if (x < this.runs[2 * r]) {
+        return false;
+      } else if (x < this.runs[2 * r + 1]) {
+        return true;
+      } // if / else if
+    } // for [r]
+    return false;
+  } // get(int, int)
+
+  /**
+   * Paint a character into the cells of one row that are in the set.
+   * Only columns from (inclusive) to to (exclusive) are painted, and
+   * column from goes at index offset of dest.
+   *
+   * @param y
+   *   The row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   * @param ch
+   *   The character to paint.
+   */
+  public void paint(int y, int from, int to, char[] dest, int offset, char ch) {
+    if ((y < 0) || (y >= this.height)) {
+      return;
+    } // if
+    for (int r = this.rowStarts[y]; r < this.rowStarts[y + 1]; r++) {
+      int start = Math.max(from, this.runs[2 * r]);
+      int end = Math.min(to, this.runs[2 * r + 1]);
+      if (start >= to) {
+        return;
+      } else if (start < end) {
+        Arrays.fill(dest, offset + start - from, offset + end - from, ch);
+      } // if / else if
+    } // for [r]
+  } // paint(int, int, int, char[], int, char)
+} // class SparseMask
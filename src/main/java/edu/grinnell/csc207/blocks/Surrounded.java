@@ -1,5 +1,7 @@
 package edu.grinnell.csc207.blocks;
 
+import java.util.Arrays;
+
 /**
  * A text block surrounded by a single letter.
  *
@@ -58,11 +60,7 @@ public class Surrounded implements AsciiBlock {
     if (i < 0 || i >= height()) {
       throw new Exception("Invalid row number");
     } // if
-    if (i == 0 || i == height() - 1) {
-      return surroundChar.repeat(width());
-    } // if
-    String contentRow = contents.row(i - 1);
-    return surroundChar + contentRow + surroundChar;
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -83,6 +81,110 @@ public class Surrounded implements AsciiBlock {
     return contents.width() + 2;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    char ch = this.surroundChar.charAt(0);
+    int w = this.width();
+    int h = this.height();
+    Arrays.fill(cells[y], x, x + w, ch);
+    for (int i = 1; i < h - 1; i++) {
+      cells[y + i][x] = ch;
+      cells[y + i][x + w - 1] = ch;
+    } // for [i]
+    Arrays.fill(cells[y + h - 1], x, x + w, ch);
+    this.contents.renderInto(cells, x + 1, y + 1);
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    if (from >= to) {
+      return;
+    } // if
+    char ch = this.surroundChar.charAt(0);
+    int w = this.width();
+    if (i == 0 || i == this.height() - 1) {
+      Arrays.fill(dest, offset, offset + to - from, ch);
+    } else {
+      if (from == 0) {
+        dest[offset] = ch;
+      } // if
+      int lo = Math.max(from, 1);
+      int hi = Math.min(to, w - 1);
+      if (lo < hi) {
+        this.contents.renderRow(i - 1, lo - 1, hi - 1, dest, offset + lo - from);
+      } // if
+      if (to == w) {
+        dest[offset + to - from - 1] = ch;
+      } // if
+    } // if / else
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    if ((i == 0) || (j == 0) || (i == this.height() - 1) || (j == this.width() - 1)) {
+      return this.surroundChar.charAt(0);
+    } // if
+    return this.contents.charAt(i - 1, j - 1);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.contents.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The surrounding characters are placed by the size of the
+   * contents each time we draw, so the listener can listen to the
+   * contents.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.contents.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
@@ -1,5 +1,7 @@
 package edu.grinnell.csc207.blocks;
 
+import java.util.Arrays;
+
 /**
  * A trimmed ASCII block.
  *
@@ -8,6 +10,15 @@ package edu.grinnell.csc207.blocks;
  * @author Nicky Moreno Gonzalez
  */
 public class Trimmed implements AsciiBlock {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The row we produce when the original block is too small to trim.
+   */
+  static final String TOO_SMALL = "Error: Original Block width or height is smaller";
+
   // +--------+------------------------------------------------------------
   // | Fields |
   // +--------+
@@ -79,31 +90,10 @@ public class Trimmed implements AsciiBlock {
    *   If the row is invalid.
    */
   public String row(int i) throws Exception {
-    if (this.width > block.width() || this.height > block.height()) {
-      return "Error: Original Block width or height is smaller";
-    } // if
-    int startRow;
-    if (valign == VAlignment.TOP) {
-      startRow = i;
-    } else if (valign == VAlignment.CENTER) {
-      startRow = i + (block.height() - this.height) / 2;
-    } else {
-      startRow = i + (block.height() - this.height); // Align the bottom
-    } // else
-    if (startRow < 0 || startRow >= block.height()) {
+    if ((i < 0) || (i >= this.height())) {
       throw new Exception("Invalid row index.");
     } // if
-
-    String originalRow = block.row(startRow);
-    int startCol;
-    if (halign == HAlignment.LEFT) {
-      startCol = 0;
-    } else if (halign == HAlignment.CENTER) {
-      startCol = (block.width() - this.width) / 2;
-    } else {
-      startCol = block.width() - this.width; // Align the right
-    } // else
-    return originalRow.substring(startCol, startCol + this.width);
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -124,6 +114,133 @@ public class Trimmed implements AsciiBlock {
     return this.width;
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    if (this.width > block.width() || this.height > block.height()) {
+      int len = Math.min(this.width, TOO_SMALL.length());
+      for (int i = 0; i < this.height; i++) {
+        TOO_SMALL.getChars(0, len, cells[y + i], x);
+        Arrays.fill(cells[y + i], x + len, x + this.width, ' ');
+      } // for [i]
+      return;
+    } // if
+    int startRow = this.firstRow();
+    int startCol = this.firstCol();
+    for (int i = 0; i < this.height; i++) {
+      this.block.renderRow(startRow + i, startCol, startCol + this.width, cells[y + i], x);
+    } // for [i]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    if (this.width > block.width() || this.height > block.height()) {
+      int end = Math.max(from, Math.min(to, TOO_SMALL.length()));
+      if (from < end) {
+        TOO_SMALL.getChars(from, end, dest, offset);
+      } // if
+      Arrays.fill(dest, offset + end - from, offset + to - from, ' ');
+      return;
+    } // if
+    int startCol = this.firstCol();
+    this.block.renderRow(i + this.firstRow(), from + startCol, to + startCol, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    if (this.width > block.width() || this.height > block.height()) {
+      return (j < TOO_SMALL.length()) ? TOO_SMALL.charAt(j) : ' ';
+    } // if
+    return this.block.charAt(i + this.firstRow(), j + this.firstCol());
+  } // charAt(int, int)
+
+  /**
+   * Determine which row of the original block is the first row we keep.
+   *
+   * @return the index of the first row kept.
+   */
+  int firstRow() {
+    if (this.valign == VAlignment.TOP) {
+      return 0;
+    } else if (this.valign == VAlignment.CENTER) {
+      return (this.block.height() - this.height) / 2;
+    } else {
+      return this.block.height() - this.height; // Align the bottom
+    } // if / else if / else
+  } // firstRow()
+
+  /**
+   * Determine which column of the original block is the first column
+   * we keep.
+   *
+   * @return the index of the first column kept.
+   */
+  int firstCol() {
+    if (this.halign == HAlignment.LEFT) {
+      return 0;
+    } else if (this.halign == HAlignment.CENTER) {
+      return (this.block.width() - this.width) / 2;
+    } else {
+      return this.block.width() - this.width; // Align the right
+    } // if / else if / else
+  } // firstCol()
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.block.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. Which part of the block we keep is worked out from its
+   * size each time we draw, so the listener can listen to the block.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.block.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
@@ -9,7 +9,7 @@ import java.util.Arrays;
  * @author Cade Johnston
  * @author Nicky Moreno Gonzalez
  */
-public class VComp implements AsciiBlock {
+public class VComp implements AsciiBlock, BlockListener {
   // +--------+------------------------------------------------------------
   // | Fields |
   // +--------+
@@ -19,6 +19,21 @@ public class VComp implements AsciiBlock {
    */
   AsciiBlock[] blocks;
 
+  /**
+   * The most recent measurements of the composition, if any.
+   */
+  volatile Layout measured;
+
+  /**
+   * The number of times a block in the composition has changed.
+   */
+  volatile long version;
+
+  /**
+   * The listeners to tell when the composition changes.
+   */
+  Listeners listeners = new Listeners();
+
   /**
    * How the blocks are aligned.
    */
@@ -42,6 +57,7 @@ public class VComp implements AsciiBlock {
       AsciiBlock bottomBlock) {
     this.align = alignment;
     this.blocks = new AsciiBlock[] {topBlock, bottomBlock};
+    this.listen();
   } // VComp(HAlignment, AsciiBlock, AsciiBlock)
 
   /**
@@ -55,6 +71,7 @@ public class VComp implements AsciiBlock {
   public VComp(HAlignment alignment, AsciiBlock[] blocksToCompose) {
     this.align = alignment;
     this.blocks = Arrays.copyOf(blocksToCompose, blocksToCompose.length);
+    this.listen();
   } // VComp(HAlignment, AsciiBLOCK[])
 
   // +---------+-----------------------------------------------------------
@@ -72,28 +89,10 @@ public class VComp implements AsciiBlock {
    *   if i is outside the range of valid rows.
    */
   public String row(int i) throws Exception {
-    if ((i >= 0) && (i < this.height())) {
-      String output = "";
-      for (int block = 0; block < this.blocks.length; block++) {
-        if (this.blocks[block].height() > i) {
-          output = this.blocks[block].row(i);
-          block = this.blocks.length;
-        } else {
-          i -= this.blocks[block].height();
-        } // if / else
-      } // for [block]
-      int smallerHalfCt = (this.width() - output.length()) / 2;
-      int largerHalfCt = (this.width() - output.length() + 1) / 2;
-      if (this.align.equals(HAlignment.LEFT)) {
-        return output + " ".repeat(smallerHalfCt + largerHalfCt);
-      } else if (this.align.equals(HAlignment.CENTER)) {
-        return " ".repeat(smallerHalfCt) + output + " ".repeat(largerHalfCt);
-      } else {
-        return " ".repeat(smallerHalfCt + largerHalfCt) + output;
-      } // if / else if / else
-    } else {
+    if ((i < 0) || (i >= this.height())) {
       throw new Exception("Invalid row " + i);
-    } // if / else
+    } // if
+    return this.rowUnchecked(i);
   } // row(int)
 
   /**
@@ -102,11 +101,7 @@ public class VComp implements AsciiBlock {
    * @return the number of rows
    */
   public int height() {
-    int h = 0;
-    for (AsciiBlock block : this.blocks) {
-      h += block.height();
-    } // foreach [block]
-    return h;
+    return this.layout().height;
   } // height()
 
   /**
@@ -115,12 +110,184 @@ public class VComp implements AsciiBlock {
    * @return the number of columns
    */
   public int width() {
+    return this.layout().width;
+  } // width()
+
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    int w = this.width();
+    int row = y;
+    for (AsciiBlock block : this.blocks) {
+      int blockHeight = block.height();
+      int blockWidth = block.width();
+      int left = this.leftPadding(blockWidth, w);
+      for (int i = row; i < row + blockHeight; i++) {
+        Arrays.fill(cells[i], x, x + left, ' ');
+        Arrays.fill(cells[i], x + left + blockWidth, x + w, ' ');
+      } // for [i]
+      block.renderInto(cells, x + left, row);
+      row += blockHeight;
+    } // for
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    Layout layout = this.layout();
+    int b = layout.owner(i);
+    AsciiBlock block = this.blocks[b];
+    int left = this.leftPadding(block.width(), layout.width);
+    // Clamp the block's columns to the ones we were asked for.
+    int lo = Math.min(to, Math.max(from, left));
+    int hi = Math.min(to, Math.max(from, left + block.width()));
+    Arrays.fill(dest, offset, offset + lo - from, ' ');
+    if (lo < hi) {
+      block.renderRow(i - layout.starts[b], lo - left, hi - left, dest, offset + lo - from);
+    } // if
+    Arrays.fill(dest, offset + hi - from, offset + to - from, ' ');
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    Layout layout = this.layout();
+    int b = layout.owner(i);
+    AsciiBlock block = this.blocks[b];
+    int col = j - this.leftPadding(block.width(), layout.width);
+    if ((col >= 0) && (col < block.width())) {
+      return block.charAt(i - layout.starts[b], col);
+    } // if
+    return ' ';
+  } // charAt(int, int)
+
+  /**
+   * Determine how many blank columns sit to the left of a block of the
+   * given width within this composition.
+   *
+   * @param blockWidth
+   *   The width of one of the composed blocks.
+   * @param totalWidth
+   *   The width of the composition.
+   *
+   * @return the number of blank columns to the left of the block.
+   */
+  int leftPadding(int blockWidth, int totalWidth) {
+    if (this.align.equals(HAlignment.LEFT)) {
+      return 0;
+    } else if (this.align.equals(HAlignment.CENTER)) {
+      return (totalWidth - blockWidth) / 2;
+    } else {
+      return totalWidth - blockWidth;
+    } // if / else if / else
+  } // leftPadding(int, int)
+
+  /**
+   * Get the measurements of the composition, measuring the blocks again
+   * only if one of them has changed size since we last did so. The
+   * measurements include the first row of each block.
+   *
+   * @return the current measurements.
+   */
+  Layout layout() {
+    Layout result = this.measured;
+    if (result != null) {
+      return result;
+    } // if
+    long seen = this.version;
+    int[] starts = new int[this.blocks.length + 1];
     int w = 0;
+    for (int b = 0; b < this.blocks.length; b++) {
+      starts[b + 1] = starts[b] + this.blocks[b].height();
+      w = Math.max(w, this.blocks[b].width());
+    } // for [b]
+    result = new Layout(w, starts[this.blocks.length], starts);
+    // If something changed while we were measuring, don't keep the
+    // measurements around.
+    if (this.version == seen) {
+      this.measured = result;
+    } // if
+    return result;
+  } // layout()
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. The block holds the listener weakly.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.listeners.add(listener);
+  } // addListener(BlockListener)
+
+  /**
+   * Note that one of the blocks in the composition has changed. We
+   * only need to measure again if it changed size.
+   *
+   * @param source
+   *   The block that changed.
+   * @param resized
+   *   Whether the width or height of the block may have changed.
+   */
+  public void blockChanged(AsciiBlock source, boolean resized) {
+    this.version++;
+    if (resized) {
+      this.measured = null;
+    } // if
+    this.listeners.fire(source, resized);
+  } // blockChanged(AsciiBlock, boolean)
+
+  /**
+   * Listen to each of the blocks in the composition.
+   */
+  void listen() {
     for (AsciiBlock block : this.blocks) {
-      w = Math.max(w, block.width());
-    } // foreach [block]
-    return w;
-  } // width()
+      block.addListener(this);
+    } // for [block]
+  } // listen()
 
   /**
    * Determine if another block is structurally equivalent to this block.
@@ -47,7 +47,7 @@ public class VFlip implements AsciiBlock {
    */
   public String row(int i) throws Exception {
     if ((i >= 0) && (i < this.height())) {
-      return this.block.row(this.height() - 1 - i);
+      return this.block.rowUnchecked(this.height() - 1 - i);
     } else {
       throw new Exception("Invalid row " + i);
     } // if / else
@@ -71,6 +71,86 @@ public class VFlip implements AsciiBlock {
     return this.block.width();
   } // width()
 
+  /**
+   * Paint the block into a grid of cells, with the top-left corner of
+   * the block at row y, column x of the grid.
+   *
+   * @param cells
+   *   The grid of cells.
+   * @param x
+   *   The column of the grid at which the block starts.
+   * @param y
+   *   The row of the grid at which the block starts.
+   */
+  public void renderInto(char[][] cells, int x, int y) {
+    this.block.renderInto(cells, x, y);
+    int w = this.block.width();
+    for (int top = y, bottom = y + this.block.height() - 1; top < bottom; top++, bottom--) {
+      for (int j = x; j < x + w; j++) {
+        char tmp = cells[top][j];
+        cells[top][j] = cells[bottom][j];
+        cells[bottom][j] = tmp;
+      } // for [j]
+    } // for [top/bottom]
+  } // renderInto(char[][], int, int)
+
+  /**
+   * Paint part of one row of the block into an array of characters,
+   * starting at a given offset. Only columns from (inclusive) to to
+   * (exclusive) are painted.
+   *
+   * @param i
+   *   The number of the row.
+   * @param from
+   *   The first column to paint.
+   * @param to
+   *   The column after the last one to paint.
+   * @param dest
+   *   The array to paint into.
+   * @param offset
+   *   The index in dest at which column from goes.
+   */
+  public void renderRow(int i, int from, int to, char[] dest, int offset) {
+    this.block.renderRow(this.height() - 1 - i, from, to, dest, offset);
+  } // renderRow(int, int, int, char[], int)
+
+  /**
+   * Get the character at one cell of the block, without checking the
+   * row or column.
+   *
+   * @param i
+   *   The number of the row.
+   * @param j
+   *   The number of the column.
+   *
+   * @return the character at row i, column j.
+   */
+  public char charAt(int i, int j) {
+    return this.block.charAt(this.block.height() - 1 - i, j);
+  } // charAt(int, int)
+
+  /**
+   * Get the version of the block, a number that grows whenever the
+   * contents or size of the block change.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.block.version();
+  } // version()
+
+  /**
+   * Ask the block to tell a listener whenever its contents or size
+   * change. Flipping keeps nothing of its own, just a row number to
+   * look up in the original block, so the listener can listen to it.
+   *
+   * @param listener
+   *   The listener to tell.
+   */
+  public void addListener(BlockListener listener) {
+    this.block.addListener(listener);
+  } // addListener(BlockListener)
+
   /**
    * Determine if another block is structurally equivalent to this block.
    *
@@ -0,0 +1,152 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An animation that runs at a fixed rate. Before each frame, we call a
+ * step that changes the scene (updating lines, growing rectangles, and
+ * so on); then, if we are still on time, we draw the scene on a
+ * terminal renderer, which sends only what changed. If we fall a whole
+ * frame behind, we skip drawing (but not stepping) until we catch up,
+ * counting the frames we skip as dropped. The last frame is always
+ * drawn.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class AnimationLoop {
+  // +------------+--------------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * What happens to the scene between frames.
+   */
+  public interface Step {
+    /**
+     * Change the scene for a frame.
+     *
+     * @param frame
+     *   The number of the frame, counting from 0.
+     *
+     * @exception Exception
+     *   If the scene cannot be changed.
+     */
+    public void apply(long frame) throws Exception;
+  } // interface Step
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The scene.
+   */
+  AsciiBlock scene;
+
+  /**
+   * Where we draw the scene.
+   */
+  TerminalRenderer renderer;
+
+  /**
+   * What happens between frames.
+   */
+  Step step;
+
+  /**
+   * The time between frames, in nanoseconds.
+   */
+  long period;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build an animation.
+   *
+   * @param animated
+   *   The scene.
+   * @param screen
+   *   Where we draw the scene.
+   * @param fps
+   *   The number of frames per second.
+   * @param between
+   *   What happens to the scene between frames.
+   */
+  public AnimationLoop(AsciiBlock animated, TerminalRenderer screen, int fps, Step between) {
+    this.scene = animated;
+    this.renderer = screen;
+    this.period = 1_000_000_000L / Math.max(1, fps);
+    this.step = between;
+  } // AnimationLoop(AsciiBlock, TerminalRenderer, int, Step)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Run the animation for a number of frames.
+   *
+   * @param frames
+   *   The number of frames.
+   *
+   * @return measurements of the frames.
+   *
+   * @exception Exception
+   *   If the step fails or the terminal cannot be written.
+   */
+  public FrameStats run(int frames) throws Exception {
+    FrameStats stats = new FrameStats(this.period, frames);
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    com.sun.management.ThreadMXBean allocations =
+        (threads instanceof com.sun.management.ThreadMXBean)
+            ? (com.sun.management.ThreadMXBean) threads
+            : null;
+    long me = Thread.currentThread().getId();
+    long deadline = System.nanoTime();
+    for (int f = 0; f < frames; f++) {
+      this.step.apply(f);
+      // Never drop the last frame, so the screen ends up current.
+      if ((f < frames - 1) && (System.nanoTime() - deadline > this.period)) {
+        stats.dropped();
+      } else {
+        long allocatedBefore = (allocations == null) ? -1 : allocations.getThreadAllocatedBytes(me);
+        long start = System.nanoTime();
+        int size = this.renderer.draw(this.scene);
+        long drawn = System.nanoTime();
+        this.renderer.send();
+        long sent = System.nanoTime();
+        long allocated = (allocatedBefore < 0)
+            ? -1
+            : allocations.getThreadAllocatedBytes(me) - allocatedBefore;
+        stats.shown(drawn - start, sent - drawn, allocated, size);
+      } // if / else
+      deadline += this.period;
+      long wait = deadline - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      } // if
+    } // for [f]
+    return stats;
+  } // run(int)
+
+  /**
+   * Run the animation for a given length of time.
+   *
+   * @param seconds
+   *   How long to run.
+   *
+   * @return measurements of the frames.
+   *
+   * @exception Exception
+   *   If the step fails or the terminal cannot be written.
+   */
+  public FrameStats runFor(double seconds) throws Exception {
+    return this.run((int) Math.ceil(seconds * 1_000_000_000L / this.period));
+  } // runFor(double)
+} // class AnimationLoop
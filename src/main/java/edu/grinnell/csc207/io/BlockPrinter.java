@@ -0,0 +1,335 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A printer for blocks that saves up many rows before writing any of
+ * them. Rows are painted straight into one reusable buffer, and the
+ * buffer is only handed to the underlying writer, stream, or other
+ * Appendable when it fills up (or when we flush). Printing a large
+ * block thus takes a handful of writes rather than one per row.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class BlockPrinter {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of characters we save up by default.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * What we put at the end of each row.
+   */
+  static final String NEWLINE = System.lineSeparator();
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the characters go, if we are writing characters.
+   */
+  Appendable chars;
+
+  /**
+   * Where the bytes go, if we are writing bytes.
+   */
+  OutputStream bytes;
+
+  /**
+   * How we turn characters into bytes, if we are writing bytes.
+   */
+  CharsetEncoder encoder;
+
+  /**
+   * The bytes waiting to be written, if we are writing bytes.
+   */
+  ByteBuffer encoded;
+
+  /**
+   * The characters waiting to be written.
+   */
+  char[] buffer;
+
+  /**
+   * The number of characters in the buffer. After a write, this may
+   * still include half a surrogate pair, waiting for its other half.
+   */
+  int used;
+
+  /**
+   * The number of rows written so far.
+   */
+  long rowCount;
+
+  /**
+   * The number of characters written so far.
+   */
+  long charCount;
+
+  /**
+   * The number of bytes written so far.
+   */
+  long byteCount;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a printer that writes characters to a Writer or any other
+   * Appendable.
+   *
+   * @param out
+   *   Where to write.
+   */
+  public BlockPrinter(Appendable out) {
+    this(out, DEFAULT_CAPACITY);
+  } // BlockPrinter(Appendable)
+
+  /**
+   * Build a printer that writes characters to a Writer or any other
+   * Appendable, saving up a given number of characters between writes.
+   *
+   * @param out
+   *   Where to write.
+   * @param capacity
+   *   How many characters to save up.
+   */
+  public BlockPrinter(Appendable out, int capacity) {
+    this.chars = out;
+    this.buffer = new char[Math.max(capacity, 1)];
+  } // BlockPrinter(Appendable, int)
+
+  /**
+   * Build a printer that writes UTF-8 bytes to a stream.
+   *
+   * @param out
+   *   Where to write.
+   */
+  public BlockPrinter(OutputStream out) {
+    this(out, StandardCharsets.UTF_8, DEFAULT_CAPACITY);
+  } // BlockPrinter(OutputStream)
+
+  /**
+   * Build a printer that writes bytes to a stream, saving up a given
+   * number of characters between writes.
+   *
+   * @param out
+   *   Where to write.
+   * @param charset
+   *   How to turn characters into bytes.
+   * @param capacity
+   *   How many characters to save up. We save up at least two, so that
+   *   there is room for the second half of a surrogate pair.
+   */
+  public BlockPrinter(OutputStream out, Charset charset, int capacity) {
+    this.bytes = out;
+    this.buffer = new char[Math.max(capacity, 2)];
+    this.encoder = charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.encoded = ByteBuffer.allocate(
+        (int) Math.ceil(this.buffer.length * this.encoder.maxBytesPerChar()));
+  } // BlockPrinter(OutputStream, Charset, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Print a block, one line per row. Rows the block cannot produce are
+   * replaced by an error message, as in AsciiBlock.print.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @exception IOException
+   *   If the underlying writer or stream fails.
+   */
+  public void print(AsciiBlock block) throws IOException {
+    int width = block.width();
+    int height = block.height();
+    for (int i = 0; i < height; i++) {
+      this.room(width + NEWLINE.length());
+      int start = this.used;
+      try {
+        block.renderRow(i, this.buffer, start);
+        this.used += width;
+        this.append(NEWLINE);
+        this.rowCount++;
+      } catch (RuntimeException e) {
+        this.used = start;
+        this.println("*** ERROR: Missing row " + i + " ***");
+      } // try/catch
+    } // for [i]
+  } // print(AsciiBlock)
+
+  /**
+   * Print a line of text that is not part of a block, such as a
+   * caption.
+   *
+   * @param str
+   *   The text to print.
+   *
+   * @exception IOException
+   *   If the underlying writer or stream fails.
+   */
+  public void println(String str) throws IOException {
+    // Text longer than the buffer goes through it a piece at a time,
+    // rather than growing it.
+    int start = 0;
+    while ((start < str.length())
+        && (str.length() - start + NEWLINE.length() > this.buffer.length - this.used)) {
+      int piece = Math.min(str.length() - start, this.buffer.length - this.used);
+      str.getChars(start, start + piece, this.buffer, this.used);
+      this.used += piece;
+      start += piece;
+      this.drain();
+    } // while
+    this.room(str.length() - start + NEWLINE.length());
+    str.getChars(start, str.length(), this.buffer, this.used);
+    this.used += str.length() - start;
+    this.append(NEWLINE);
+    this.rowCount++;
+  } // println(String)
+
+  /**
+   * Write everything saved up so far, and flush the underlying writer
+   * or stream, if it can be flushed.
+   *
+   * @exception IOException
+   *   If the underlying writer or stream fails.
+   */
+  public void flush() throws IOException {
+    this.drain();
+    if (this.bytes != null) {
+      this.bytes.flush();
+    } else if (this.chars instanceof Writer) {
+      ((Writer) this.chars).flush();
+    } // if / else if
+  } // flush()
+
+  /**
+   * Determine how many rows (including lines of text) have been
+   * written.
+   *
+   * @return the number of rows.
+   */
+  public long rows() {
+    return this.rowCount;
+  } // rows()
+
+  /**
+   * Determine how many characters have been written, including line
+   * separators. Characters still waiting in the buffer are not
+   * counted until they are written.
+   *
+   * @return the number of characters.
+   */
+  public long chars() {
+    return this.charCount;
+  } // chars()
+
+  /**
+   * Determine how many bytes have been written. When writing
+   * characters rather than bytes, this is the number of characters.
+   *
+   * @return the number of bytes.
+   */
+  public long bytes() {
+    return (this.bytes == null) ? this.charCount : this.byteCount;
+  } // bytes()
+
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Copy a string into the buffer.
+   *
+   * @param str
+   *   The string to copy.
+   *
+   * @pre
+   *   The string fits in the rest of the buffer.
+   */
+  void append(String str) {
+    str.getChars(0, str.length(), this.buffer, this.used);
+    this.used += str.length();
+  } // append(String)
+
+  /**
+   * Make room in the buffer for a given number of characters, writing
+   * what is already there or growing the buffer as necessary.
+   *
+   * @param size
+   *   The number of characters.
+   *
+   * @exception IOException
+   *   If the underlying writer or stream fails.
+   */
+  void room(int size) throws IOException {
+    if (this.buffer.length - this.used >= size) {
+      return;
+    } // if
+    this.drain();
+    if (this.buffer.length - this.used < size) {
+      this.buffer = Arrays.copyOf(this.buffer, this.used + size);
+      if (this.encoder != null) {
+        this.encoded = ByteBuffer.allocate(
+            (int) Math.ceil(this.buffer.length * this.encoder.maxBytesPerChar()));
+      } // if
+    } // if
+  } // room(int)
+
+  /**
+   * Write everything saved up so far, except for the first half of a
+   * surrogate pair at the very end, which stays at the front of the
+   * buffer until its second half arrives.
+   *
+   * @exception IOException
+   *   If the underlying writer or stream fails.
+   */
+  void drain() throws IOException {
+    if (this.used == 0) {
+      return;
+    } // if
+    int left = 0;
+    if (this.bytes != null) {
+      CharBuffer in = CharBuffer.wrap(this.buffer, 0, this.used);
+      CoderResult result;
+      do {
+        this.encoded.clear();
+        result = this.encoder.encode(in, this.encoded, false);
+        this.byteCount += this.encoded.position();
+        this.bytes.write(this.encoded.array(), 0, this.encoded.position());
+      } while (result.isOverflow());
+      // Keep whatever the encoder could not use yet.
+      in.compact();
+      left = in.position();
+    } else if (this.chars instanceof Writer) {
+      ((Writer) this.chars).write(this.buffer, 0, this.used);
+    } else {
+      this.chars.append(CharBuffer.wrap(this.buffer, 0, this.used));
+    } // if / else if / else
+    this.charCount += this.used - left;
+    this.used = left;
+  } // drain()
+} // class BlockPrinter
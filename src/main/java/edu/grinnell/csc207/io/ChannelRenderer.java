@@ -0,0 +1,274 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A renderer that writes blocks to a channel (standard output, a file,
+ * a socket) through one reusable direct buffer. Rows are painted into
+ * a reusable array of characters and narrowed to bytes, so no strings
+ * are built. Narrowing uses the US-ASCII encoder, whose array-to-array
+ * loop the JVM compiles to vector instructions (a plain loop of casts
+ * turns out to be more than ten times slower). Rows with characters
+ * outside of ASCII are encoded as UTF-8 instead.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class ChannelRenderer {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of bytes we save up by default.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * What we put at the end of each row.
+   */
+  static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the bytes go.
+   */
+  WritableByteChannel channel;
+
+  /**
+   * The bytes waiting to be written.
+   */
+  ByteBuffer buffer;
+
+  /**
+   * One row of characters.
+   */
+  char[] chars = new char[0];
+
+  /**
+   * The row of characters, as a buffer.
+   */
+  CharBuffer charBuffer = CharBuffer.wrap(this.chars);
+
+  /**
+   * One row of bytes.
+   */
+  ByteBuffer byteBuffer = ByteBuffer.allocate(0);
+
+  /**
+   * The encoder for rows that are pure ASCII.
+   */
+  CharsetEncoder ascii = StandardCharsets.US_ASCII.newEncoder();
+
+  /**
+   * The encoder for rows that are not pure ASCII, made when we first
+   * need it.
+   */
+  CharsetEncoder encoder;
+
+  /**
+   * The number of rows written so far.
+   */
+  long rowCount;
+
+  /**
+   * The number of bytes written so far.
+   */
+  long byteCount;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a renderer that writes to a channel.
+   *
+   * @param out
+   *   Where to write.
+   */
+  public ChannelRenderer(WritableByteChannel out) {
+    this(out, DEFAULT_CAPACITY);
+  } // ChannelRenderer(WritableByteChannel)
+
+  /**
+   * Build a renderer that writes to a channel, saving up a given number
+   * of bytes between writes.
+   *
+   * @param out
+   *   Where to write.
+   * @param capacity
+   *   How many bytes to save up (at least 16).
+   */
+  public ChannelRenderer(WritableByteChannel out, int capacity) {
+    this.channel = out;
+    this.buffer = ByteBuffer.allocateDirect(Math.max(capacity, 16));
+  } // ChannelRenderer(WritableByteChannel, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Print a block, one line per row. Rows the block cannot produce are
+   * replaced by an error message, as in AsciiBlock.print.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  public void print(AsciiBlock block) throws IOException {
+    int width = block.width();
+    int height = block.height();
+    if (this.chars.length < width) {
+      this.chars = new char[width];
+      this.charBuffer = CharBuffer.wrap(this.chars);
+      this.byteBuffer = ByteBuffer.allocate(width);
+    } // if
+    for (int i = 0; i < height; i++) {
+      try {
+        block.renderRow(i, this.chars, 0);
+      } catch (RuntimeException e) {
+        this.println("*** ERROR: Missing row " + i + " ***");
+        continue;
+      } // try/catch
+      this.put(width);
+      this.put(NEWLINE, NEWLINE.length);
+      this.rowCount++;
+    } // for [i]
+  } // print(AsciiBlock)
+
+  /**
+   * Print a line of text that is not part of a block.
+   *
+   * @param str
+   *   The text to print.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  public void println(String str) throws IOException {
+    this.encode(CharBuffer.wrap(str));
+    this.put(NEWLINE, NEWLINE.length);
+    this.rowCount++;
+  } // println(String)
+
+  /**
+   * Write everything saved up so far.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  public void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.byteCount += this.channel.write(this.buffer);
+    } // while
+    this.buffer.clear();
+  } // flush()
+
+  /**
+   * Determine how many rows (including lines of text) have been
+   * written.
+   *
+   * @return the number of rows.
+   */
+  public long rows() {
+    return this.rowCount;
+  } // rows()
+
+  /**
+   * Determine how many bytes have been written. Bytes still waiting in
+   * the buffer are not counted until they are written.
+   *
+   * @return the number of bytes.
+   */
+  public long bytes() {
+    return this.byteCount;
+  } // bytes()
+
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Save up the first few characters of the row, narrowing them to
+   * bytes if they are all ASCII.
+   *
+   * @param width
+   *   The number of characters.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  void put(int width) throws IOException {
+    CharBuffer in = this.charBuffer;
+    ByteBuffer out = this.byteBuffer;
+    in.clear().limit(width);
+    out.clear();
+    this.ascii.reset();
+    if (this.ascii.encode(in, out, true).isError()) {
+      this.encode(in.clear().limit(width));
+      return;
+    } // if
+    this.put(out.array(), width);
+  } // put(int)
+
+  /**
+   * Save up some bytes, writing what is saved up already if need be.
+   *
+   * @param source
+   *   Where the bytes are.
+   * @param length
+   *   How many bytes to save up, starting at the beginning of source.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  void put(byte[] source, int length) throws IOException {
+    int done = 0;
+    while (done < length) {
+      if (!this.buffer.hasRemaining()) {
+        this.flush();
+      } // if
+      int len = Math.min(length - done, this.buffer.remaining());
+      this.buffer.put(source, done, len);
+      done += len;
+    } // while
+  } // put(byte[], int)
+
+  /**
+   * Save up the UTF-8 encoding of some characters.
+   *
+   * @param in
+   *   The characters.
+   *
+   * @exception IOException
+   *   If the channel fails.
+   */
+  void encode(CharBuffer in) throws IOException {
+    if (this.encoder == null) {
+      this.encoder = StandardCharsets.UTF_8.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    } // if
+    this.encoder.reset();
+    while (this.encoder.encode(in, this.buffer, true).isOverflow()) {
+      this.flush();
+    } // while
+    while (this.encoder.flush(this.buffer).isOverflow()) {
+      this.flush();
+    } // while
+  } // encode(CharBuffer)
+} // class ChannelRenderer
@@ -0,0 +1,255 @@
+package edu.grinnell.csc207.io;
+
+import java.util.Arrays;
+
+/**
+ * Measurements of the frames of an animation: how long each took to
+ * draw and to send, how much it allocated, and how many frames were
+ * dropped because the animation fell behind.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class FrameStats {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The time between frames, in nanoseconds.
+   */
+  long period;
+
+  /**
+   * The time to draw each frame, in nanoseconds.
+   */
+  long[] drawTimes;
+
+  /**
+   * The time to send each frame, in nanoseconds.
+   */
+  long[] sendTimes;
+
+  /**
+   * The bytes allocated by each frame, or -1 if we cannot tell.
+   */
+  long[] allocations;
+
+  /**
+   * The number of characters sent for each frame.
+   */
+  long[] sizes;
+
+  /**
+   * The number of frames shown.
+   */
+  int shown;
+
+  /**
+   * The number of frames dropped.
+   */
+  int dropped;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Get ready to measure some frames.
+   *
+   * @param frameNanos
+   *   The time between frames, in nanoseconds.
+   * @param frames
+   *   The most frames we will measure.
+   */
+  FrameStats(long frameNanos, int frames) {
+    this.period = frameNanos;
+    this.drawTimes = new long[frames];
+    this.sendTimes = new long[frames];
+    this.allocations = new long[frames];
+    this.sizes = new long[frames];
+  } // FrameStats(long, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Record one frame that was shown.
+   *
+   * @param draw
+   *   The time to draw it, in nanoseconds.
+   * @param send
+   *   The time to send it, in nanoseconds.
+   * @param allocated
+   *   The bytes allocated, or -1 if unknown.
+   * @param size
+   *   The number of characters sent.
+   */
+  void shown(long draw, long send, long allocated, long size) {
+    this.drawTimes[this.shown] = draw;
+    this.sendTimes[this.shown] = send;
+    this.allocations[this.shown] = allocated;
+    this.sizes[this.shown] = size;
+    this.shown++;
+  } // shown(long, long, long, long)
+
+  /**
+   * Record one frame that was dropped.
+   */
+  void dropped() {
+    this.dropped++;
+  } // dropped()
+
+  /**
+   * Determine how many frames were shown.
+   *
+   * @return the number of frames.
+   */
+  public int framesShown() {
+    return this.shown;
+  } // framesShown()
+
+  /**
+   * Determine how many frames were dropped because the animation fell
+   * behind.
+   *
+   * @return the number of frames.
+   */
+  public int framesDropped() {
+    return this.dropped;
+  } // framesDropped()
+
+  /**
+   * Find a percentile of the time to draw a frame.
+   *
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return the time, in nanoseconds.
+   */
+  public long drawNanos(double p) {
+    return percentile(this.drawTimes, this.shown, p);
+  } // drawNanos(double)
+
+  /**
+   * Find a percentile of the time to send a frame.
+   *
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return the time, in nanoseconds.
+   */
+  public long sendNanos(double p) {
+    return percentile(this.sendTimes, this.shown, p);
+  } // sendNanos(double)
+
+  /**
+   * Find a percentile of the time to draw and send a frame.
+   *
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return the time, in nanoseconds.
+   */
+  public long frameNanos(double p) {
+    long[] totals = new long[this.shown];
+    for (int f = 0; f < this.shown; f++) {
+      totals[f] = this.drawTimes[f] + this.sendTimes[f];
+    } // for [f]
+    return percentile(totals, this.shown, p);
+  } // frameNanos(double)
+
+  /**
+   * Find the average number of bytes allocated per frame.
+   *
+   * @return the number of bytes, or -1 if we could not tell.
+   */
+  public long bytesAllocatedPerFrame() {
+    return average(this.allocations, this.shown);
+  } // bytesAllocatedPerFrame()
+
+  /**
+   * Find the average number of characters sent per frame.
+   *
+   * @return the number of characters.
+   */
+  public long charsPerFrame() {
+    return average(this.sizes, this.shown);
+  } // charsPerFrame()
+
+  /**
+   * Determine if the animation kept up: no frames dropped, and 99% of
+   * frames drawn and sent within the time between frames.
+   *
+   * @return true if the animation kept up and false otherwise.
+   */
+  public boolean keptUp() {
+    return (this.dropped == 0) && (this.frameNanos(99) <= this.period);
+  } // keptUp()
+
+  /**
+   * Summarize the measurements.
+   *
+   * @return a one-line summary.
+   */
+  @Override
+  public String toString() {
+    return String.format("%d frames shown, %d dropped; draw p50 %.3f ms, p99 %.3f ms; "
+        + "send p50 %.3f ms, p99 %.3f ms; %d chars and %d bytes allocated per frame; %s",
+        this.shown, this.dropped, this.drawNanos(50) / 1e6, this.drawNanos(99) / 1e6,
+        this.sendNanos(50) / 1e6, this.sendNanos(99) / 1e6, this.charsPerFrame(),
+        this.bytesAllocatedPerFrame(), this.keptUp() ? "kept up" : "fell behind");
+  } // toString()
+
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find a percentile of some measurements.
+   *
+   * @param values
+   *   The measurements.
+   * @param count
+   *   The number of measurements.
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return the percentile, or 0 if there are no measurements.
+   */
+  static long percentile(long[] values, int count, double p) {
+    if (count == 0) {
+      return 0;
+    } // if
+    long[] sorted = Arrays.copyOf(values, count);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(p / 100 * count) - 1;
+    return sorted[Math.max(0, Math.min(count - 1, index))];
+  } // percentile(long[], int, double)
+
+  /**
+   * Find the average of some measurements.
+   *
+   * @param values
+   *   The measurements.
+   * @param count
+   *   The number of measurements.
+   *
+   * @return the average, or -1 if any measurement is unknown (or there
+   *   are none).
+   */
+  static long average(long[] values, int count) {
+    if (count == 0) {
+      return -1;
+    } // if
+    long total = 0;
+    for (int f = 0; f < count; f++) {
+      if (values[f] < 0) {
+        return -1;
+      } // if
+      total += values[f];
+    } // for [f]
+    return total / count;
+  } // average(long[], int)
+} // class FrameStats
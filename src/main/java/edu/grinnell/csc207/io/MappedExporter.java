@@ -0,0 +1,121 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An exporter that writes blocks to files through memory-mapped
+ * regions of the file. Every cell takes one byte, followed by a
+ * newline ('\n', whatever the platform) at the end of each row, so we
+ * know the size of the file before we start and can write each row
+ * right where it belongs. Characters outside of ASCII are written as
+ * question marks.
+ *
+ * Large files are mapped a region at a time; each region holds a
+ * whole number of rows.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class MappedExporter {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The size of the regions we map by default, in bytes.
+   */
+  public static final int DEFAULT_REGION = 1 << 26;
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The most bytes we map at once (unless a single row is bigger).
+   */
+  int region;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build an exporter that maps the default amount at once.
+   */
+  public MappedExporter() {
+    this(DEFAULT_REGION);
+  } // MappedExporter()
+
+  /**
+   * Build an exporter that maps a given number of bytes at once.
+   *
+   * @param regionSize
+   *   The number of bytes to map at once.
+   */
+  public MappedExporter(int regionSize) {
+    this.region = Math.max(regionSize, 1);
+  } // MappedExporter(int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine how many bytes a block takes once exported.
+   *
+   * @param block
+   *   The block.
+   *
+   * @return the size of the exported block.
+   */
+  public static long size(AsciiBlock block) {
+    return (long) block.height() * (block.width() + 1);
+  } // size(AsciiBlock)
+
+  /**
+   * Write a block to a file, replacing anything already in the file.
+   *
+   * @param block
+   *   The block to write.
+   * @param path
+   *   The file to write to.
+   *
+   * @return the number of bytes written.
+   *
+   * @exception IOException
+   *   If the file cannot be written.
+   */
+  public long export(AsciiBlock block, Path path) throws IOException {
+    int width = block.width();
+    int height = block.height();
+    int lineSize = width + 1;
+    long total = size(block);
+    int rowsPerRegion = Math.max(1, this.region / lineSize);
+    char[] chars = new char[width];
+    byte[] bytes = new byte[lineSize];
+    bytes[width] = '\n';
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (int first = 0; first < height; first += rowsPerRegion) {
+        int last = Math.min(height, first + rowsPerRegion);
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE,
+            (long) first * lineSize, (long) (last - first) * lineSize);
+        for (int i = first; i < last; i++) {
+          block.renderRow(i, chars, 0);
+          for (int j = 0; j < width; j++) {
+            char ch = chars[j];
+            bytes[j] = (ch < 0x80) ? (byte) ch : (byte) '?';
+          } // for [j]
+          map.put(bytes);
+        } // for [i]
+      } // for [first]
+    } // try
+    return total;
+  } // export(AsciiBlock, Path)
+} // class MappedExporter
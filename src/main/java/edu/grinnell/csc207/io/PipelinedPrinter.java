@@ -0,0 +1,386 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A printer that renders and writes at the same time. Rows are
+ * gathered into chunks, and the chunks go around a ring of a fixed
+ * number of slots. One or more render threads fill the slots (thread t
+ * takes chunks t, t + threads, t + 2 * threads, ...) while the thread
+ * that called print writes the slots out, strictly in order. A render
+ * thread that gets too far ahead waits for its slot to be written, so
+ * memory use stays bounded however large the block.
+ *
+ * The output is exactly what AsciiBlock.print would print.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class PipelinedPrinter {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * What we put at the end of each row.
+   */
+  static final String NEWLINE = System.lineSeparator();
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the characters go.
+   */
+  Writer out;
+
+  /**
+   * The number of render threads.
+   */
+  int threads;
+
+  /**
+   * The number of slots in the ring.
+   */
+  int slots;
+
+  /**
+   * The number of rows in each chunk.
+   */
+  int chunkRows;
+
+  /**
+   * The number of rows written so far.
+   */
+  long rowCount;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a printer with one render thread per available processor
+   * (less one for writing), a ring of twice as many slots, and chunks
+   * of 64 rows.
+   *
+   * @param writer
+   *   Where to write.
+   */
+  public PipelinedPrinter(Writer writer) {
+    this(writer, Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+        2 * Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 64);
+  } // PipelinedPrinter(Writer)
+
+  /**
+   * Build a printer.
+   *
+   * @param writer
+   *   Where to write.
+   * @param renderThreads
+   *   The number of render threads.
+   * @param ringSlots
+   *   The number of slots in the ring.
+   * @param rowsPerChunk
+   *   The number of rows in each chunk.
+   */
+  public PipelinedPrinter(Writer writer, int renderThreads, int ringSlots,
+      int rowsPerChunk) {
+    this.out = writer;
+    this.threads = Math.max(1, renderThreads);
+    this.slots = Math.max(1, ringSlots);
+    this.chunkRows = Math.max(1, rowsPerChunk);
+  } // PipelinedPrinter(Writer, int, int, int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Print a block, one line per row, and flush the writer. Rows the
+   * block cannot produce are replaced by an error message, as in
+   * AsciiBlock.print.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @exception IOException
+   *   If the writer fails.
+   */
+  public void print(AsciiBlock block) throws IOException {
+    int height = block.height();
+    int chunks = (height + this.chunkRows - 1) / this.chunkRows;
+    Ring ring = new Ring(block, chunks);
+    Thread[] renderers = new Thread[Math.min(this.threads, chunks)];
+    for (int t = 0; t < renderers.length; t++) {
+      int first = t;
+      renderers[t] = new Thread(() -> ring.render(first, renderers.length),
+          "block-render-" + t);
+      renderers[t].setDaemon(true);
+      renderers[t].start();
+    } // for [t]
+    try {
+      for (int c = 0; c < chunks; c++) {
+        Slot slot = ring.await(c);
+        this.out.write(slot.chars, 0, slot.length);
+        this.rowCount += slot.rows;
+        ring.written(c);
+      } // for [c]
+    } finally {
+      ring.stop();
+    } // try/finally
+    this.out.flush();
+  } // print(AsciiBlock)
+
+  /**
+   * Determine how many rows have been written.
+   *
+   * @return the number of rows.
+   */
+  public long rows() {
+    return this.rowCount;
+  } // rows()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * One slot in the ring: the text of a chunk of rows.
+   */
+  static class Slot {
+    /**
+     * The characters.
+     */
+    char[] chars = new char[0];
+
+    /**
+     * The number of characters in use.
+     */
+    int length;
+
+    /**
+     * The number of rows.
+     */
+    int rows;
+
+    /**
+     * Make sure there is room for a given number of extra characters.
+     *
+     * @param extra
+     *   The number of extra characters.
+     */
+    void room(int extra) {
+      if (this.chars.length - this.length < extra) {
+        char[] bigger = new char[Math.max(this.length + extra, 2 * this.chars.length)];
+        System.arraycopy(this.chars, 0, bigger, 0, this.length);
+        this.chars = bigger;
+      } // if
+    } // room(int)
+
+    /**
+     * Add some text to the slot.
+     *
+     * @param str
+     *   The text.
+     */
+    void append(String str) {
+      this.room(str.length());
+      str.getChars(0, str.length(), this.chars, this.length);
+      this.length += str.length();
+    } // append(String)
+  } // class Slot
+
+  /**
+   * The ring of slots shared by the render threads and the writer while
+   * printing one block. Slot k holds chunks k, k + slots, and so on;
+   * chunk c may be rendered once chunk c - slots has been written.
+   */
+  class Ring {
+    /**
+     * The block being printed.
+     */
+    AsciiBlock block;
+
+    /**
+     * The number of chunks.
+     */
+    int chunks;
+
+    /**
+     * The slots.
+     */
+    Slot[] ring;
+
+    /**
+     * The chunk held by each slot, or -1 if the slot is being filled.
+     */
+    int[] holds;
+
+    /**
+     * The number of chunks written so far.
+     */
+    int done;
+
+    /**
+     * Whether to give up (because the writer failed or finished).
+     */
+    boolean stopped;
+
+    /**
+     * What went wrong on a render thread, if anything.
+     */
+    Throwable failure;
+
+    /**
+     * Set up a ring for one block.
+     *
+     * @param toPrint
+     *   The block.
+     * @param chunkCount
+     *   The number of chunks.
+     */
+    Ring(AsciiBlock toPrint, int chunkCount) {
+      this.block = toPrint;
+      this.chunks = chunkCount;
+      this.ring = new Slot[PipelinedPrinter.this.slots];
+      this.holds = new int[this.ring.length];
+      for (int k = 0; k < this.ring.length; k++) {
+        this.ring[k] = new Slot();
+        this.holds[k] = -1;
+      } // for [k]
+    } // Ring(AsciiBlock, int)
+
+    /**
+     * Render every stride'th chunk, starting with a given one. This is
+     * what each render thread does.
+     *
+     * @param first
+     *   The first chunk to render.
+     * @param stride
+     *   The distance between chunks.
+     */
+    void render(int first, int stride) {
+      try {
+        for (int c = first; c < this.chunks; c += stride) {
+          Slot slot = this.claim(c);
+          if (slot == null) {
+            return;
+          } // if
+          this.fill(slot, c);
+          this.publish(c);
+        } // for [c]
+      } catch (Throwable t) {
+        synchronized (this) {
+          this.failure = t;
+          this.notifyAll();
+        } // synchronized
+      } // try/catch
+    } // render(int, int)
+
+    /**
+     * Wait until the slot for a chunk is free.
+     *
+     * @param c
+     *   The chunk.
+     *
+     * @return the slot, or null if we should stop.
+     *
+     * @exception InterruptedException
+     *   If the thread is interrupted while waiting.
+     */
+    synchronized Slot claim(int c) throws InterruptedException {
+      while (!this.stopped && (c - this.done >= this.ring.length)) {
+        this.wait();
+      } // while
+      return this.stopped ? null : this.ring[c % this.ring.length];
+    } // claim(int)
+
+    /**
+     * Render the rows of a chunk into its slot.
+     *
+     * @param slot
+     *   The slot.
+     * @param c
+     *   The chunk.
+     */
+    void fill(Slot slot, int c) {
+      int width = this.block.width();
+      int from = c * PipelinedPrinter.this.chunkRows;
+      int to = Math.min(this.block.height(), from + PipelinedPrinter.this.chunkRows);
+      slot.length = 0;
+      slot.rows = to - from;
+      slot.room(slot.rows * (width + NEWLINE.length()));
+      for (int i = from; i < to; i++) {
+        slot.room(width + NEWLINE.length());
+        try {
+          this.block.renderRow(i, slot.chars, slot.length);
+          slot.length += width;
+        } catch (RuntimeException e) {
+          slot.append("*** ERROR: Missing row " + i + " ***");
+        } // try/catch
+        slot.append(NEWLINE);
+      } // for [i]
+    } // fill(Slot, int)
+
+    /**
+     * Note that a chunk is ready to write.
+     *
+     * @param c
+     *   The chunk.
+     */
+    synchronized void publish(int c) {
+      this.holds[c % this.ring.length] = c;
+      this.notifyAll();
+    } // publish(int)
+
+    /**
+     * Wait until a chunk is ready to write.
+     *
+     * @param c
+     *   The chunk.
+     *
+     * @return the slot holding the chunk.
+     *
+     * @exception IOException
+     *   If a render thread failed or we are interrupted.
+     */
+    synchronized Slot await(int c) throws IOException {
+      int k = c % this.ring.length;
+      while ((this.holds[k] != c) && (this.failure == null)) {
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while printing", e);
+        } // try/catch
+      } // while
+      if (this.failure != null) {
+        throw new IOException("Could not render block", this.failure);
+      } // if
+      return this.ring[k];
+    } // await(int)
+
+    /**
+     * Note that a chunk has been written, freeing its slot.
+     *
+     * @param c
+     *   The chunk.
+     */
+    synchronized void written(int c) {
+      this.holds[c % this.ring.length] = -1;
+      this.done = c + 1;
+      this.notifyAll();
+    } // written(int)
+
+    /**
+     * Tell the render threads to stop.
+     */
+    synchronized void stop() {
+      this.stopped = true;
+      this.notifyAll();
+    } // stop()
+  } // class Ring
+} // class PipelinedPrinter
@@ -0,0 +1,267 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A publisher of the rows of a block. Each subscriber gets every row of
+ * the block, in order, followed by onComplete. Rows are only built once
+ * a subscriber has asked for them, so a slow subscriber never causes
+ * more of the block to be rendered than it can take. Subscribers are
+ * independent: each has its own place in the block, and cancelling one
+ * does not affect the others.
+ *
+ * Rows are delivered on an executor (by default, the common fork/join
+ * pool), never more than one at a time to the same subscriber. The
+ * number of rows is fixed when a subscriber subscribes; the rows
+ * themselves are built when they are delivered.
+ *
+ * If a subscriber throws from one of its own methods, we treat its
+ * subscription as cancelled and hand the exception to the uncaught
+ * exception handler of the delivering thread, rather than telling
+ * the broken subscriber about it with onError.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class RowPublisher implements Flow.Publisher<String> {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The block whose rows we publish.
+   */
+  AsciiBlock block;
+
+  /**
+   * Where we deliver rows.
+   */
+  Executor executor;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a publisher that delivers rows on the common fork/join pool.
+   *
+   * @param source
+   *   The block whose rows we publish.
+   */
+  public RowPublisher(AsciiBlock source) {
+    this(source, ForkJoinPool.commonPool());
+  } // RowPublisher(AsciiBlock)
+
+  /**
+   * Build a publisher that delivers rows on a given executor.
+   *
+   * @param source
+   *   The block whose rows we publish.
+   * @param deliverer
+   *   Where we deliver rows.
+   */
+  public RowPublisher(AsciiBlock source, Executor deliverer) {
+    this.block = source;
+    this.executor = deliverer;
+  } // RowPublisher(AsciiBlock, Executor)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Add a subscriber.
+   *
+   * @param subscriber
+   *   The subscriber.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super String> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    } // if
+    RowSubscription subscription = new RowSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    // Blocks without rows complete without being asked.
+    subscription.schedule();
+  } // subscribe(Flow.Subscriber)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * One subscriber's place in the block.
+   */
+  class RowSubscription implements Flow.Subscription, Runnable {
+    /**
+     * The subscriber.
+     */
+    Flow.Subscriber<? super String> subscriber;
+
+    /**
+     * The number of rows.
+     */
+    int height;
+
+    /**
+     * The next row to deliver.
+     */
+    int next;
+
+    /**
+     * The number of rows asked for but not yet delivered.
+     */
+    AtomicLong demand = new AtomicLong();
+
+    /**
+     * The number of times we have been asked to deliver since we last
+     * finished delivering. Only the caller that raises it from zero
+     * schedules a delivery, so deliveries never overlap.
+     */
+    AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Whether the subscriber asked for a bad number of rows.
+     */
+    volatile boolean badRequest;
+
+    /**
+     * Whether we are done, because the subscriber cancelled or we have
+     * told it we are complete or failed.
+     */
+    volatile boolean finished;
+
+    /**
+     * Set up a subscription.
+     *
+     * @param sub
+     *   The subscriber.
+     */
+    RowSubscription(Flow.Subscriber<? super String> sub) {
+      this.subscriber = sub;
+      this.height = RowPublisher.this.block.height();
+    } // RowSubscription(Flow.Subscriber)
+
+    /**
+     * Ask for more rows.
+     *
+     * @param n
+     *   The number of rows.
+     */
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.badRequest = true;
+      } else {
+        this.demand.getAndAccumulate(n, (have, more) -> {
+          long sum = have + more;
+          return (sum < 0) ? Long.MAX_VALUE : sum;
+        });
+      } // if / else
+      this.schedule();
+    } // request(long)
+
+    /**
+     * Stop delivering rows.
+     */
+    @Override
+    public void cancel() {
+      this.finished = true;
+    } // cancel()
+
+    /**
+     * Arrange to deliver whatever has been asked for, unless a delivery
+     * is already under way (in which case it will notice).
+     */
+    void schedule() {
+      if (this.pending.getAndIncrement() == 0) {
+        try {
+          RowPublisher.this.executor.execute(this);
+        } catch (RuntimeException e) {
+          this.fail(e);
+        } // try/catch
+      } // if
+    } // schedule()
+
+    /**
+     * Deliver as many rows as have been asked for.
+     */
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        if (this.badRequest && !this.finished) {
+          this.fail(new IllegalArgumentException("request must be positive"));
+        } // if
+        long requested = this.demand.get();
+        long sent = 0;
+        while ((sent != requested) && !this.finished && (this.next < this.height)) {
+          String row;
+          try {
+            row = RowPublisher.this.block.rowUnchecked(this.next++);
+          } catch (RuntimeException e) {
+            this.fail(e);
+            break;
+          } // try/catch
+          try {
+            this.subscriber.onNext(row);
+          } catch (RuntimeException e) {
+            this.abandon(e);
+            break;
+          } // try/catch
+          sent++;
+        } // while
+        if (!this.finished && (this.next >= this.height)) {
+          this.finished = true;
+          try {
+            this.subscriber.onComplete();
+          } catch (RuntimeException e) {
+            this.abandon(e);
+          } // try/catch
+        } // if
+        if ((sent != 0) && (requested != Long.MAX_VALUE)) {
+          this.demand.addAndGet(-sent);
+        } // if
+        missed = this.pending.addAndGet(-missed);
+      } while (missed != 0);
+    } // run()
+
+    /**
+     * Give up, telling the subscriber why.
+     *
+     * @param e
+     *   What went wrong.
+     */
+    void fail(Throwable e) {
+      if (!this.finished) {
+        this.finished = true;
+        try {
+          this.subscriber.onError(e);
+        } catch (RuntimeException thrown) {
+          this.abandon(thrown);
+        } // try/catch
+      } // if
+    } // fail(Throwable)
+
+    /**
+     * Give up because the subscriber itself threw. The subscriber may be
+     * in no state to hear about it, so we stop as if it had cancelled
+     * and report the exception to the uncaught exception handler of
+     * this thread instead.
+     *
+     * @param e
+     *   What the subscriber threw.
+     */
+    void abandon(Throwable e) {
+      this.finished = true;
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    } // abandon(Throwable)
+  } // class RowSubscription
+} // class RowPublisher
@@ -0,0 +1,221 @@
+package edu.grinnell.csc207.io;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * A renderer for animations on an ANSI terminal. The renderer remembers
+ * the last frame it drew and, for each new frame, sends only the runs
+ * of cells that changed, each preceded by a sequence that moves the
+ * cursor there. The first frame, and any frame of a different size,
+ * clears the screen and is drawn in full.
+ *
+ * After each frame the cursor is left at the start of the line below
+ * the frame.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class TerminalRenderer {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The start of every ANSI control sequence.
+   */
+  static final String CSI = "\u001b[";
+
+  /**
+   * Runs of changed cells closer together than this are sent as one
+   * run, since resending a few unchanged cells is cheaper than moving
+   * the cursor again.
+   */
+  static final int MERGE_GAP = 8;
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the output goes.
+   */
+  Appendable out;
+
+  /**
+   * The frame currently on the screen, or null if we have not drawn
+   * one.
+   */
+  char[][] shown;
+
+  /**
+   * A grid the size of the shown frame, for drawing the next one.
+   */
+  char[][] scratch;
+
+  /**
+   * The output for one frame.
+   */
+  StringBuilder pending = new StringBuilder();
+
+  /**
+   * The number of characters sent for the last frame.
+   */
+  int lastSize;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a renderer that sends its output to a terminal.
+   *
+   * @param terminal
+   *   Where the output goes.
+   */
+  public TerminalRenderer(Appendable terminal) {
+    this.out = terminal;
+  } // TerminalRenderer(Appendable)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Draw the next frame of the animation and send it to the terminal.
+   *
+   * @param block
+   *   The frame.
+   *
+   * @return the number of characters sent.
+   *
+   * @exception IOException
+   *   If the terminal cannot be written.
+   */
+  public int frame(AsciiBlock block) throws IOException {
+    int size = this.draw(block);
+    this.send();
+    return size;
+  } // frame(AsciiBlock)
+
+  /**
+   * Work out what to send for the next frame of the animation, without
+   * sending it yet.
+   *
+   * @param block
+   *   The frame.
+   *
+   * @return the number of characters to send.
+   */
+  public int draw(AsciiBlock block) {
+    int width = block.width();
+    int height = block.height();
+    StringBuilder text = this.pending;
+    text.setLength(0);
+    if ((this.shown == null) || (this.shown.length != height)
+        || ((height > 0) && (this.shown[0].length != width))) {
+      this.shown = new char[height][width];
+      this.scratch = new char[height][width];
+      block.renderInto(this.shown, 0, 0);
+      text.append(CSI).append("2J");
+      for (int i = 0; i < height; i++) {
+        this.moveTo(i, 0);
+        text.append(this.shown[i]);
+      } // for [i]
+    } else {
+      block.renderInto(this.scratch, 0, 0);
+      for (int i = 0; i < height; i++) {
+        this.diff(i);
+      } // for [i]
+      char[][] swap = this.shown;
+      this.shown = this.scratch;
+      this.scratch = swap;
+    } // if / else
+    this.moveTo(height, 0);
+    this.lastSize = text.length();
+    return this.lastSize;
+  } // draw(AsciiBlock)
+
+  /**
+   * Send the frame worked out by the last call to draw.
+   *
+   * @exception IOException
+   *   If the terminal cannot be written.
+   */
+  public void send() throws IOException {
+    this.out.append(this.pending);
+    this.pending.setLength(0);
+    if (this.out instanceof Flushable) {
+      ((Flushable) this.out).flush();
+    } // if
+  } // send()
+
+  /**
+   * Forget what is on the screen, so that the next frame is drawn in
+   * full (say, because something else wrote to the terminal).
+   */
+  public void invalidate() {
+    this.shown = null;
+  } // invalidate()
+
+  /**
+   * Determine how many characters were sent for the last frame.
+   *
+   * @return the number of characters.
+   */
+  public int lastFrameSize() {
+    return this.lastSize;
+  } // lastFrameSize()
+
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Add the runs of one row that differ between the shown frame and the
+   * new one to the output.
+   *
+   * @param i
+   *   The row.
+   */
+  void diff(int i) {
+    char[] before = this.shown[i];
+    char[] after = this.scratch[i];
+    int width = after.length;
+    int j = 0;
+    while (j < width) {
+      if (before[j] == after[j]) {
+        j++;
+        continue;
+      } // if
+      int start = j;
+      int end = j + 1;
+      // Extend the run while the next difference is close enough.
+      for (int k = end; (k < width) && (k - end < MERGE_GAP); k++) {
+        if (before[k] != after[k]) {
+          end = k + 1;
+        } // if
+      } // for [k]
+      this.moveTo(i, start);
+      this.pending.append(after, start, end - start);
+      j = end;
+    } // while
+  } // diff(int)
+
+  /**
+   * Add a sequence that moves the cursor to a cell to the output.
+   *
+   * @param row
+   *   The row, counting from 0.
+   * @param col
+   *   The column, counting from 0.
+   */
+  void moveTo(int row, int col) {
+    this.pending.append(CSI).append(row + 1);
+    if (col > 0) {
+      this.pending.append(';').append(col + 1);
+    } // if
+    this.pending.append('H');
+  } // moveTo(int, int)
+} // class TerminalRenderer
@@ -5,10 +5,16 @@ import edu.grinnell.csc207.blocks.BezierCurveStamp;
 import edu.grinnell.csc207.blocks.HAlignment;
 import edu.grinnell.csc207.blocks.HComp;
 import edu.grinnell.csc207.blocks.HFlip;
+import edu.grinnell.csc207.blocks.Memoized;
 import edu.grinnell.csc207.blocks.Rect;
 import edu.grinnell.csc207.blocks.VAlignment;
 import edu.grinnell.csc207.blocks.VComp;
-import java.io.PrintWriter;
+import edu.grinnell.csc207.io.AnimationLoop;
+import edu.grinnell.csc207.io.FrameStats;
+import edu.grinnell.csc207.io.TerminalRenderer;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * Create and print an amazing 80x24 ASCII artwork.
@@ -18,21 +24,36 @@ import java.io.PrintWriter;
  */
 public class Art80x24 {
   /**
-   * Our cute Halloween pumpkin.
+   * Build our cute Halloween pumpkin.
    *
-   * @param args
-   *   Command-line arguments (currently ignored).
+   * @return the 80x24 block for the pumpkin.
    *
    * @exception Exception
    *   If something goes wrong with one of the underlying classes.
    */
-  public static void main(String[] args) throws Exception {
-    PrintWriter pen = new PrintWriter(System.out, true);
+  public static AsciiBlock pumpkin() throws Exception {
+    return pumpkin(new Rect('^', 4, 2));
+  } // pumpkin()
+
+  /**
+   * Build our cute Halloween pumpkin around a given piece of the top of
+   * the background; the stem is the gap below that piece, so making the
+   * piece taller makes the stem shorter.
+   *
+   * @param stick1
+   *   The piece of background over the stem, 4 wide and between 1 and
+   *   6 tall.
+   *
+   * @return the 80x24 block for the pumpkin.
+   *
+   * @exception Exception
+   *   If something goes wrong with one of the underlying classes.
+   */
+  public static AsciiBlock pumpkin(Rect stick1) throws Exception {
     AsciiBlock background = new Rect('^', 40, 18);
     AsciiBlock halfCircle =
         new BezierCurveStamp(background, ' ', 3, 40,
             new int[]{40, -8, -8, 40}, new int[]{0, 0, 16, 16});
-    AsciiBlock stick1 = new Rect('^', 4, 2);
     AsciiBlock stick2 = new Rect('^', 36, 6);
     AsciiBlock stick = new HComp(VAlignment.TOP, new AsciiBlock[] {stick2, stick1});
     AsciiBlock assemble1 = new VComp(HAlignment.LEFT, new AsciiBlock[] {stick, halfCircle});
@@ -40,11 +61,57 @@ public class Art80x24 {
         new BezierCurveStamp(assemble1, ' ', 3, 40,
             new int[]{28, 32, 35, 28}, new int[]{10, 5, 16, 10});
     AsciiBlock smile =
-        new BezierCurveStamp(eyes, ' ', 3, 40,
-            new int[]{40, 18, 23, 40}, new int[]{16, 11, 20, 20});
+        new Memoized(new BezierCurveStamp(eyes, ' ', 3, 40,
+            new int[]{40, 18, 23, 40}, new int[]{16, 11, 20, 20}));
     AsciiBlock reversedHalf = new HFlip(smile);
-    AsciiBlock art = new HComp(VAlignment.TOP, new AsciiBlock[] {smile, reversedHalf});
-    AsciiBlock.print(pen, art);
-    pen.close();
+    return new HComp(VAlignment.TOP, new AsciiBlock[] {smile, reversedHalf});
+  } // pumpkin(Rect)
+
+  /**
+   * Animate our cute Halloween pumpkin, with its stem growing and
+   * shrinking, at 60 frames per second. Measurements of the frames go
+   * to standard error at the end.
+   *
+   * @param seconds
+   *   How long to animate.
+   *
+   * @exception Exception
+   *   If something goes wrong with one of the underlying classes.
+   */
+  public static void animate(double seconds) throws Exception {
+    Rect stick1 = new Rect('^', 4, 2);
+    TerminalRenderer screen = new TerminalRenderer(System.out);
+    AnimationLoop loop = new AnimationLoop(pumpkin(stick1), screen, 60, (frame) -> {
+      // Every tenth of a second, grow or shrink, reversing every four
+      // times, so that the piece stays between 2 and 6 tall.
+      if (frame % 6 == 0) {
+        if ((frame / 24) % 2 == 0) {
+          stick1.taller();
+        } else {
+          stick1.shorter();
+        } // if / else
+      } // if
+    });
+    FrameStats stats = loop.runFor(seconds);
+    System.err.println(stats);
+  } // animate(double)
+
+  /**
+   * Print our cute Halloween pumpkin. Given "animate" (and, optionally,
+   * a number of seconds), animate it instead.
+   *
+   * @param args
+   *   Command-line arguments.
+   *
+   * @exception Exception
+   *   If something goes wrong with one of the underlying classes.
+   */
+  public static void main(String[] args) throws Exception {
+    if ((args.length > 0) && args[0].equals("animate")) {
+      animate((args.length > 1) ? Double.parseDouble(args[1]) : 10);
+      return;
+    } // if
+    FileChannel out = new FileOutputStream(FileDescriptor.out).getChannel();
+    AsciiBlock.print(out, pumpkin());
   } // main(String[])
 } // class Art80x24
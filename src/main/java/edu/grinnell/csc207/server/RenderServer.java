@@ -0,0 +1,422 @@
+package edu.grinnell.csc207.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.io.BlockPrinter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small HTTP server that renders blocks. Ask for
+ *
+ * <pre>
+ *   GET /render?scene=(boxed (line "Hello"))
+ * </pre>
+ *
+ * or post the scene to /render, and the rendered block comes back as
+ * plain text, one line per row, streamed in chunks as it is rendered.
+ * Scenes are written as SceneParser expects. GET /metrics reports how
+ * many requests there have been and how long they took.
+ *
+ * Each request runs on its own virtual thread when the JDK has them,
+ * and on a pool of platform threads otherwise.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class RenderServer {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The port we listen on by default.
+   */
+  public static final int DEFAULT_PORT = 8207;
+
+  /**
+   * The longest scene description we accept, in bytes.
+   */
+  public static final int MAX_SCENE = 1 << 16;
+
+  /**
+   * The most work we are willing to do for one request: the cells of
+   * all the blocks of the scene, plus the steps it takes to draw the
+   * curves of any stamps (see SceneParser.parse).
+   */
+  public static final long MAX_CELLS = 1L << 24;
+
+  /**
+   * How many characters we render before sending a chunk.
+   */
+  static final int CHUNK = 1 << 13;
+
+  /**
+   * The number of platform threads to use when there are no virtual
+   * threads.
+   */
+  static final int POOL_THREADS =
+      Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The underlying server.
+   */
+  HttpServer server;
+
+  /**
+   * The threads that handle requests.
+   */
+  ExecutorService executor;
+
+  /**
+   * Whether those threads are virtual.
+   */
+  boolean virtual;
+
+  /**
+   * Measurements of the requests.
+   */
+  RequestMetrics metrics = new RequestMetrics();
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a server that listens on a port of this machine only. The
+   * server does not answer until it is started.
+   *
+   * @param port
+   *   The port, or 0 to pick any free port.
+   *
+   * @exception IOException
+   *   If we cannot listen on the port.
+   */
+  public RenderServer(int port) throws IOException {
+    this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  } // RenderServer(int)
+
+  /**
+   * Build a server that listens on an address. The server does not
+   * answer until it is started.
+   *
+   * @param address
+   *   The address.
+   *
+   * @exception IOException
+   *   If we cannot listen on the address.
+   */
+  public RenderServer(InetSocketAddress address) throws IOException {
+    this.server = HttpServer.create(address, 0);
+    this.server.createContext("/render", this::render);
+    this.server.createContext("/metrics", this::metrics);
+    this.executor = virtualThreads();
+    this.virtual = (this.executor != null);
+    if (!this.virtual) {
+      this.executor = platformThreads();
+    } // if
+    this.server.setExecutor(this.executor);
+  } // RenderServer(InetSocketAddress)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Start answering requests.
+   */
+  public void start() {
+    this.server.start();
+  } // start()
+
+  /**
+   * Stop answering requests, waiting up to a second for the ones
+   * already running to finish.
+   */
+  public void stop() {
+    this.server.stop(0);
+    this.executor.shutdown();
+    try {
+      this.executor.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } // try/catch
+  } // stop()
+
+  /**
+   * Determine which port the server listens on.
+   *
+   * @return the port.
+   */
+  public int port() {
+    return this.server.getAddress().getPort();
+  } // port()
+
+  /**
+   * Determine if requests run on virtual threads.
+   *
+   * @return true if they do and false if they run on platform threads.
+   */
+  public boolean usesVirtualThreads() {
+    return this.virtual;
+  } // usesVirtualThreads()
+
+  /**
+   * Get the measurements of the requests so far.
+   *
+   * @return the measurements.
+   */
+  public RequestMetrics metrics() {
+    return this.metrics;
+  } // metrics()
+
+  // +----------+----------------------------------------------------------
+  // | Handlers |
+  // +----------+
+
+  /**
+   * Build the scene a description describes, turning away scenes that
+   * would take more than MAX_CELLS cells (and curve steps) to build
+   * and render.
+   *
+   * @param description
+   *   The description.
+   *
+   * @return the scene.
+   *
+   * @exception SceneParser.TooLargeException
+   *   If the scene is too large.
+   * @exception IllegalArgumentException
+   *   If the description is not a valid scene.
+   */
+  protected AsciiBlock scene(String description) {
+    return SceneParser.parse(description, MAX_CELLS);
+  } // scene(String)
+
+  /**
+   * Render the scene a request describes. If building or rendering the
+   * scene fails, the client hears about it: with an error status if we
+   * have not started sending the scene, and by our dropping the
+   * connection, rather than ending the response normally, if we have.
+   * Errors of the JVM itself are left to propagate; the parser's limits
+   * are what keep scenes from running out of stack or memory.
+   *
+   * @param exchange
+   *   The request and its response.
+   *
+   * @exception IOException
+   *   If we cannot talk to the client, or have to drop the connection.
+   */
+  void render(HttpExchange exchange) throws IOException {
+    long start = this.metrics.started();
+    long sent = 0;
+    boolean failed = true;
+    boolean streaming = false;
+    try {
+      String description;
+      if ("GET".equals(exchange.getRequestMethod())) {
+        description = param(exchange.getRequestURI().getRawQuery(), "scene");
+        if (description == null) {
+          reply(exchange, 400, "Missing scene");
+          return;
+        } // if
+      } else if ("POST".equals(exchange.getRequestMethod())) {
+        description = body(exchange.getRequestBody());
+      } else {
+        exchange.getResponseHeaders().set("Allow", "GET, POST");
+        reply(exchange, 405, "Use GET or POST");
+        return;
+      } // if / else if / else
+      if ((description == null) || (description.length() > MAX_SCENE)) {
+        reply(exchange, 413, "Scene description is too long");
+        return;
+      } // if
+      AsciiBlock block;
+      try {
+        block = this.scene(description);
+      } catch (SceneParser.TooLargeException e) {
+        reply(exchange, 413, e.getMessage());
+        return;
+      } catch (IllegalArgumentException e) {
+        reply(exchange, 400, e.getMessage());
+        return;
+      } // try/catch
+      // A length of 0 asks for a chunked response, so rows go out as
+      // soon as a chunk of them is rendered.
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      exchange.sendResponseHeaders(200, 0);
+      streaming = true;
+      BlockPrinter printer =
+          new BlockPrinter(exchange.getResponseBody(), StandardCharsets.UTF_8, CHUNK);
+      printer.print(block);
+      printer.flush();
+      sent = printer.chars();
+      failed = false;
+    } catch (RuntimeException e) {
+      if (!streaming) {
+        reply(exchange, 500, "Cannot render scene: " + e);
+      } // if
+    } finally {
+      this.metrics.finished(start, sent, failed);
+      // Closing the exchange part way through the scene would end the
+      // response as if the scene were complete.
+      if (!failed || !streaming) {
+        exchange.close();
+      } // if
+    } // try/catch/finally
+    if (failed && streaming) {
+      // Throwing has the server drop the connection, so the client sees
+      // that the scene was cut short.
+      throw new IOException("Rendering failed after the response began");
+    } // if
+  } // render(HttpExchange)
+
+  /**
+   * Report the measurements of the requests so far.
+   *
+   * @param exchange
+   *   The request and its response.
+   *
+   * @exception IOException
+   *   If we cannot talk to the client.
+   */
+  void metrics(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      reply(exchange, 200, this.metrics.toString()
+          + "virtual_threads " + this.virtual + System.lineSeparator());
+    } // try
+  } // metrics(HttpExchange)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Start a server and leave it running.
+   *
+   * @param args
+   *   The port to listen on, if not the default.
+   *
+   * @exception IOException
+   *   If we cannot listen on the port.
+   */
+  public static void main(String[] args) throws IOException {
+    int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    RenderServer server = new RenderServer(port);
+    server.start();
+    System.err.println("Rendering blocks at http://localhost:" + server.port()
+        + "/render (" + (server.usesVirtualThreads() ? "virtual" : "platform")
+        + " threads)");
+  } // main(String[])
+
+  /**
+   * Build an executor that runs each task on a new virtual thread. We
+   * look the factory up by name so that the server still compiles and
+   * runs on JDKs without virtual threads.
+   *
+   * @return the executor, or null if there are no virtual threads.
+   */
+  static ExecutorService virtualThreads() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    } // try/catch
+  } // virtualThreads()
+
+  /**
+   * Build a pool of platform threads to use when there are no virtual
+   * threads. The threads do not keep the JVM alive.
+   *
+   * @return the pool.
+   */
+  static ExecutorService platformThreads() {
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(POOL_THREADS, (task) -> {
+      Thread thread = new Thread(task, "block-server-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  } // platformThreads()
+
+  /**
+   * Send a short plain-text response.
+   *
+   * @param exchange
+   *   The request and its response.
+   * @param status
+   *   The HTTP status.
+   * @param text
+   *   The text to send.
+   *
+   * @exception IOException
+   *   If we cannot talk to the client.
+   */
+  static void reply(HttpExchange exchange, int status, String text) throws IOException {
+    byte[] bytes = (text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    OutputStream out = exchange.getResponseBody();
+    out.write(bytes);
+  } // reply(HttpExchange, int, String)
+
+  /**
+   * Find one parameter of a query string.
+   *
+   * @param query
+   *   The query, still URL-encoded, or null if there is none.
+   * @param name
+   *   The name of the parameter.
+   *
+   * @return the decoded value of the parameter, or null if it is
+   *   missing.
+   */
+  static String param(String query, String name) {
+    if (query == null) {
+      return null;
+    } // if
+    for (String pair : query.split("&")) {
+      int eq = pair.indexOf('=');
+      String key = (eq < 0) ? pair : pair.substring(0, eq);
+      if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+        return (eq < 0) ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+      } // if
+    } // for [pair]
+    return null;
+  } // param(String, String)
+
+  /**
+   * Read the body of a request as text. We stop reading just past
+   * MAX_SCENE bytes, rather than reading all of a body that is too long.
+   *
+   * @param in
+   *   The body.
+   *
+   * @return the text, or null if the body is too long.
+   *
+   * @exception IOException
+   *   If we cannot read the body.
+   */
+  static String body(InputStream in) throws IOException {
+    byte[] bytes = in.readNBytes(MAX_SCENE + 1);
+    if (bytes.length > MAX_SCENE) {
+      return null;
+    } // if
+    return new String(bytes, StandardCharsets.UTF_8);
+  } // body(InputStream)
+} // class RenderServer
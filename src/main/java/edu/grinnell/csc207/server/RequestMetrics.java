@@ -0,0 +1,192 @@
+package edu.grinnell.csc207.server;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of the requests a render server has handled: how many
+ * there were, how many failed, how many are still running, and how
+ * long the most recent ones took.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class RequestMetrics {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of recent latencies we keep by default.
+   */
+  public static final int DEFAULT_WINDOW = 1024;
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of requests finished.
+   */
+  LongAdder requests = new LongAdder();
+
+  /**
+   * The number of requests that failed.
+   */
+  LongAdder errors = new LongAdder();
+
+  /**
+   * The number of characters sent.
+   */
+  LongAdder chars = new LongAdder();
+
+  /**
+   * The number of requests still running.
+   */
+  AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * The most recent latencies, in nanoseconds, as a ring.
+   */
+  long[] latencies;
+
+  /**
+   * The number of latencies ever recorded; the next one goes at this
+   * number modulo the size of the ring.
+   */
+  long recorded;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Get ready to measure requests, keeping the default number of recent
+   * latencies.
+   */
+  public RequestMetrics() {
+    this(DEFAULT_WINDOW);
+  } // RequestMetrics()
+
+  /**
+   * Get ready to measure requests, keeping a given number of recent
+   * latencies.
+   *
+   * @param window
+   *   The number of latencies to keep.
+   */
+  public RequestMetrics(int window) {
+    this.latencies = new long[Math.max(window, 1)];
+  } // RequestMetrics(int)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Note that a request has started.
+   *
+   * @return the time it started, to give back to finished.
+   */
+  long started() {
+    this.inFlight.incrementAndGet();
+    return System.nanoTime();
+  } // started()
+
+  /**
+   * Note that a request has finished.
+   *
+   * @param start
+   *   The time it started, from started.
+   * @param sent
+   *   The number of characters sent.
+   * @param failed
+   *   Whether the request failed.
+   */
+  void finished(long start, long sent, boolean failed) {
+    long latency = System.nanoTime() - start;
+    this.inFlight.decrementAndGet();
+    this.requests.increment();
+    this.chars.add(sent);
+    if (failed) {
+      this.errors.increment();
+    } // if
+    synchronized (this) {
+      this.latencies[(int) (this.recorded++ % this.latencies.length)] = latency;
+    } // synchronized
+  } // finished(long, long, boolean)
+
+  /**
+   * Determine how many requests have finished.
+   *
+   * @return the number of requests.
+   */
+  public long requests() {
+    return this.requests.sum();
+  } // requests()
+
+  /**
+   * Determine how many requests have failed.
+   *
+   * @return the number of requests.
+   */
+  public long errors() {
+    return this.errors.sum();
+  } // errors()
+
+  /**
+   * Determine how many characters of blocks have been sent.
+   *
+   * @return the number of characters.
+   */
+  public long chars() {
+    return this.chars.sum();
+  } // chars()
+
+  /**
+   * Determine how many requests are still running.
+   *
+   * @return the number of requests.
+   */
+  public int inFlight() {
+    return this.inFlight.get();
+  } // inFlight()
+
+  /**
+   * Find a percentile of the latency of the most recent requests.
+   *
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return the latency, in nanoseconds, or 0 if there have been no
+   *   requests.
+   */
+  public long latencyNanos(double p) {
+    long[] sorted;
+    synchronized (this) {
+      sorted = Arrays.copyOf(this.latencies,
+          (int) Math.min(this.recorded, this.latencies.length));
+    } // synchronized
+    if (sorted.length == 0) {
+      return 0;
+    } // if
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  } // latencyNanos(double)
+
+  /**
+   * Summarize the measurements, one per line, as name and value.
+   *
+   * @return the summary.
+   */
+  @Override
+  public String toString() {
+    return String.format("requests %d%nerrors %d%nin_flight %d%nchars %d%n"
+        + "latency_p50_ms %.3f%nlatency_p99_ms %.3f%nlatency_max_ms %.3f%n",
+        this.requests(), this.errors(), this.inFlight(), this.chars(),
+        this.latencyNanos(50) / 1e6, this.latencyNanos(99) / 1e6,
+        this.latencyNanos(100) / 1e6);
+  } // toString()
+} // class RequestMetrics
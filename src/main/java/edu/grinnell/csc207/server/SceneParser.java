@@ -0,0 +1,617 @@
+package edu.grinnell.csc207.server;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.BezierCurveStamp;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.Empty;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.HAlignment;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.HFlip;
+import edu.grinnell.csc207.blocks.Line;
+import edu.grinnell.csc207.blocks.Lines;
+import edu.grinnell.csc207.blocks.Padded;
+import edu.grinnell.csc207.blocks.Rect;
+import edu.grinnell.csc207.blocks.Surrounded;
+import edu.grinnell.csc207.blocks.Trimmed;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.blocks.VComp;
+import edu.grinnell.csc207.blocks.VFlip;
+import edu.grinnell.csc207.main.Art80x24;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parser for descriptions of scenes. A scene is written as a
+ * parenthesized list of the kind of block followed by its parts, much
+ * as we would call the constructor. For example,
+ *
+ * <pre>
+ *   (boxed (hcomp center (line "Hello") (rect * 3 2)))
+ * </pre>
+ *
+ * The kinds of blocks are
+ *
+ * <pre>
+ *   (empty)
+ *   (line "text")
+ *   (lines "text" "text" ...)
+ *   (rect char width height)
+ *   (boxed block)
+ *   (surrounded char block)
+ *   (grid block hreps vreps)
+ *   (hcomp top|center|bottom block ...)
+ *   (vcomp left|center|right block ...)
+ *   (hflip block)
+ *   (vflip block)
+ *   (padded char left|center|right top|center|bottom width height block)
+ *   (trimmed left|center|right top|center|bottom width height block)
+ *   (stamp char degree divisions (x ...) (y ...) block)
+ *   (pumpkin)
+ * </pre>
+ *
+ * A stamp with 0 divisions splits its curves only as much as they
+ * need (see BezierCurveStamp.ADAPTIVE).
+ *
+ * Strings go in double quotes, with backslash escaping a quote or a
+ * backslash. Characters are written bare (a single character) or as a
+ * one-character string.
+ *
+ * Since descriptions may come from anyone, we limit how deeply blocks
+ * nest, how big numbers get, and how much work the scene can take to
+ * build and render, and we check each block against those limits
+ * before we build it.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class SceneParser {
+  // +-----------+---------------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * How deeply blocks may nest.
+   */
+  public static final int MAX_DEPTH = 64;
+
+  /**
+   * The largest number (or, negated, the smallest) we accept.
+   */
+  public static final int MAX_NUMBER = 1 << 16;
+
+  /**
+   * The highest degree of the curves of a stamp. The weights of the
+   * control points stay accurate well past this, but curves of higher
+   * degree are of little use.
+   */
+  public static final int MAX_DEGREE = 64;
+
+  /**
+   * The most subdivisions of the curves of a stamp.
+   */
+  public static final int MAX_DIVISIONS = 1 << 10;
+
+  // +------------+--------------------------------------------------------
+  // | Exceptions |
+  // +------------+
+
+  /**
+   * The exception we throw when a description is valid, but describes
+   * a scene that is too large.
+   */
+  public static class TooLargeException extends IllegalArgumentException {
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Build the exception.
+     *
+     * @param problem
+     *   What is too large.
+     */
+    TooLargeException(String problem) {
+      super(problem);
+    } // TooLargeException(String)
+  } // class TooLargeException
+
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The description.
+   */
+  String text;
+
+  /**
+   * Where we are in the description.
+   */
+  int pos;
+
+  /**
+   * How many blocks we are inside.
+   */
+  int depth;
+
+  /**
+   * The most work we may do: the total number of cells of the blocks
+   * we build, plus the steps it takes to draw their curves.
+   */
+  long limit;
+
+  /**
+   * The work of the blocks we have built so far.
+   */
+  long work;
+
+  // +--------------+------------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Get ready to parse a description.
+   *
+   * @param description
+   *   The description.
+   * @param maxWork
+   *   The most work we may do.
+   */
+  SceneParser(String description, long maxWork) {
+    this.text = description;
+    this.limit = maxWork;
+  } // SceneParser(String, long)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Build the scene a description describes, however large.
+   *
+   * @param description
+   *   The description.
+   *
+   * @return the scene.
+   *
+   * @exception IllegalArgumentException
+   *   If the description is not a valid scene.
+   */
+  public static AsciiBlock parse(String description) {
+    return parse(description, Long.MAX_VALUE);
+  } // parse(String)
+
+  /**
+   * Build the scene a description describes, provided that doing so
+   * (and rendering it) does not take too much work. The work is the
+   * total number of cells in the blocks of the scene, counting each
+   * nested block separately, plus the steps it takes to draw the
+   * curves of any stamps.
+   *
+   * @param description
+   *   The description.
+   * @param maxWork
+   *   The most work we may do.
+   *
+   * @return the scene.
+   *
+   * @exception TooLargeException
+   *   If the scene would take too much work.
+   * @exception IllegalArgumentException
+   *   If the description is not a valid scene.
+   */
+  public static AsciiBlock parse(String description, long maxWork) {
+    SceneParser parser = new SceneParser(description, maxWork);
+    AsciiBlock result = parser.block();
+    parser.skipSpace();
+    if (parser.pos < parser.text.length()) {
+      throw parser.error("unexpected text after the scene");
+    } // if
+    return result;
+  } // parse(String, long)
+
+  // +---------+-----------------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Parse one block.
+   *
+   * @return the block.
+   */
+  AsciiBlock block() {
+    this.expect('(');
+    if (this.depth >= MAX_DEPTH) {
+      throw this.error("blocks nested more than " + MAX_DEPTH + " deep");
+    } // if
+    String kind = this.word();
+    AsciiBlock result;
+    this.depth++;
+    try {
+      result = this.build(kind);
+    } catch (IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      throw this.error("cannot build " + kind + ": " + e.getMessage());
+    } finally {
+      this.depth--;
+    } // try/catch/finally
+    this.expect(')');
+    return result;
+  } // block()
+
+  /**
+   * Parse the parts of a block of a given kind and build it.
+   *
+   * @param kind
+   *   The kind of block.
+   *
+   * @return the block.
+   *
+   * @exception Exception
+   *   If the block's constructor fails.
+   */
+  AsciiBlock build(String kind) throws Exception {
+    switch (kind) {
+      case "empty":
+        this.check(kind, 0, 0);
+        return new Empty();
+      case "line":
+        String str = this.string();
+        this.check(kind, str.length(), 1);
+        return new Line(str);
+      case "lines":
+        List<String> lines = new ArrayList<>();
+        int longest = 0;
+        while (this.peek() == '"') {
+          lines.add(this.string());
+          longest = Math.max(longest, lines.get(lines.size() - 1).length());
+        } // while
+        this.check(kind, longest, lines.size());
+        return new Lines(lines.toArray(new String[0]));
+      case "rect":
+        char rc = this.character();
+        int rw = this.size();
+        int rh = this.size();
+        this.check(kind, rw, rh);
+        return new Rect(rc, rw, rh);
+      case "boxed":
+        AsciiBlock boxed = this.block();
+        this.check(kind, boxed.width() + 2L, boxed.height() + 2L);
+        return new Boxed(boxed);
+      case "surrounded":
+        char ch = this.character();
+        AsciiBlock surrounded = this.block();
+        this.check(kind, surrounded.width() + 2L, surrounded.height() + 2L);
+        return new Surrounded(surrounded, ch);
+      case "grid":
+        AsciiBlock element = this.block();
+        int hreps = this.size();
+        int vreps = this.size();
+        this.check(kind, Math.multiplyExact((long) element.width(), hreps),
+            Math.multiplyExact((long) element.height(), vreps));
+        return new Grid(element, hreps, vreps);
+      case "hcomp":
+        VAlignment valign = this.valign();
+        AsciiBlock[] across = this.blocks();
+        long hcompWidth = 0;
+        long hcompHeight = 0;
+        for (AsciiBlock part : across) {
+          hcompWidth = Math.addExact(hcompWidth, part.width());
+          hcompHeight = Math.max(hcompHeight, part.height());
+        } // for [part]
+        this.check(kind, hcompWidth, hcompHeight);
+        return new HComp(valign, across);
+      case "vcomp":
+        HAlignment halign = this.halign();
+        AsciiBlock[] down = this.blocks();
+        long vcompWidth = 0;
+        long vcompHeight = 0;
+        for (AsciiBlock part : down) {
+          vcompWidth = Math.max(vcompWidth, part.width());
+          vcompHeight = Math.addExact(vcompHeight, part.height());
+        } // for [part]
+        this.check(kind, vcompWidth, vcompHeight);
+        return new VComp(halign, down);
+      case "hflip":
+        AsciiBlock hflipped = this.block();
+        this.check(kind, hflipped.width(), hflipped.height());
+        return new HFlip(hflipped);
+      case "vflip":
+        AsciiBlock vflipped = this.block();
+        this.check(kind, vflipped.width(), vflipped.height());
+        return new VFlip(vflipped);
+      case "padded":
+        char pad = this.character();
+        HAlignment ph = this.halign();
+        VAlignment pv = this.valign();
+        int pw = this.size();
+        int pht = this.size();
+        AsciiBlock padded = this.block();
+        this.check(kind, pw, pht);
+        return new Padded(padded, pad, ph, pv, pw, pht);
+      case "trimmed":
+        HAlignment th = this.halign();
+        VAlignment tv = this.valign();
+        int tw = this.size();
+        int tht = this.size();
+        AsciiBlock trimmed = this.block();
+        this.check(kind, tw, tht);
+        return new Trimmed(trimmed, th, tv, tw, tht);
+      case "stamp":
+        char sc = this.character();
+        int degree = this.number();
+        if ((degree < 1) || (degree > MAX_DEGREE)) {
+          throw this.error("the degree must be between 1 and " + MAX_DEGREE);
+        } // if
+        int divisions = this.number();
+        if ((divisions < 0) || (divisions > MAX_DIVISIONS)) {
+          throw this.error("the divisions must be between 0 and " + MAX_DIVISIONS);
+        } // if
+        int[] xs = this.numbers();
+        int[] ys = this.numbers();
+        if ((xs.length != ys.length) || (xs.length < degree + 1)
+            || ((xs.length - 1) % degree != 0)) {
+          throw this.error("a stamp of degree " + degree + " needs the same number of x and y"
+              + " coordinates, a multiple of " + degree + " plus one");
+        } // if
+        AsciiBlock background = this.block();
+        this.check(kind, background.width(), background.height());
+        try {
+          this.charge(kind, BezierCurveStamp.cost(degree, divisions, xs, ys));
+        } catch (ArithmeticException e) {
+          throw this.tooLarge(kind);
+        } // try/catch
+        return new BezierCurveStamp(background, sc, degree, divisions, xs, ys);
+      case "pumpkin":
+        AsciiBlock pumpkin = Art80x24.pumpkin();
+        this.check(kind, pumpkin.width(), pumpkin.height());
+        return pumpkin;
+      default:
+        throw this.error("unknown kind of block '" + kind + "'");
+    } // switch
+  } // build(String)
+
+  /**
+   * Make sure that a block of a given size is not too large, and count
+   * its cells as work. The parts of the block have already passed this
+   * check, so their sizes are exact, and the sizes of the block itself
+   * fit easily in a long.
+   *
+   * @param kind
+   *   The kind of block.
+   * @param width
+   *   The width of the block.
+   * @param height
+   *   The height of the block.
+   *
+   * @exception TooLargeException
+   *   If the block is too large.
+   */
+  void check(String kind, long width, long height) {
+    if ((width > Integer.MAX_VALUE) || (height > Integer.MAX_VALUE)) {
+      throw this.tooLarge(kind);
+    } // if
+    this.charge(kind, Math.multiplyExact(width, height));
+  } // check(String, long, long)
+
+  /**
+   * Count some work, making sure we have not done too much.
+   *
+   * @param kind
+   *   The kind of block doing the work.
+   * @param steps
+   *   The amount of work.
+   *
+   * @exception TooLargeException
+   *   If there is too much work.
+   */
+  void charge(String kind, long steps) {
+    if (steps > this.limit - this.work) {
+      throw this.tooLarge(kind);
+    } // if
+    this.work += steps;
+  } // charge(String, long)
+
+  /**
+   * Parse blocks up to (but not including) a closing parenthesis.
+   *
+   * @return the blocks.
+   */
+  AsciiBlock[] blocks() {
+    List<AsciiBlock> result = new ArrayList<>();
+    while (this.peek() == '(') {
+      result.add(this.block());
+    } // while
+    return result.toArray(new AsciiBlock[0]);
+  } // blocks()
+
+  /**
+   * Parse a parenthesized list of numbers.
+   *
+   * @return the numbers.
+   */
+  int[] numbers() {
+    this.expect('(');
+    List<Integer> values = new ArrayList<>();
+    while ((this.peek() != ')') && (this.peek() != -1)) {
+      values.add(this.number());
+    } // while
+    this.expect(')');
+    return values.stream().mapToInt(Integer::intValue).toArray();
+  } // numbers()
+
+  /**
+   * Parse a number.
+   *
+   * @return the number.
+   */
+  int number() {
+    String word = this.word();
+    int result;
+    try {
+      result = Integer.parseInt(word);
+    } catch (NumberFormatException e) {
+      throw this.error("expected a number, found '" + word + "'");
+    } // try/catch
+    if ((result < -MAX_NUMBER) || (result > MAX_NUMBER)) {
+      throw this.error("numbers must be between " + -MAX_NUMBER + " and " + MAX_NUMBER);
+    } // if
+    return result;
+  } // number()
+
+  /**
+   * Parse the size of something, which cannot be negative.
+   *
+   * @return the size.
+   */
+  int size() {
+    int result = this.number();
+    if (result < 0) {
+      throw this.error("sizes cannot be negative");
+    } // if
+    return result;
+  } // size()
+
+  /**
+   * Parse a character.
+   *
+   * @return the character.
+   */
+  char character() {
+    String word = (this.peek() == '"') ? this.string() : this.word();
+    if (word.length() != 1) {
+      throw this.error("expected one character, found '" + word + "'");
+    } // if
+    return word.charAt(0);
+  } // character()
+
+  /**
+   * Parse a horizontal alignment.
+   *
+   * @return the alignment.
+   */
+  HAlignment halign() {
+    String word = this.word();
+    try {
+      return HAlignment.valueOf(word.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw this.error("expected left, center, or right, found '" + word + "'");
+    } // try/catch
+  } // halign()
+
+  /**
+   * Parse a vertical alignment.
+   *
+   * @return the alignment.
+   */
+  VAlignment valign() {
+    String word = this.word();
+    try {
+      return VAlignment.valueOf(word.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw this.error("expected top, center, or bottom, found '" + word + "'");
+    } // try/catch
+  } // valign()
+
+  /**
+   * Parse a quoted string.
+   *
+   * @return the contents of the string.
+   */
+  String string() {
+    this.expect('"');
+    StringBuilder result = new StringBuilder();
+    while (this.pos < this.text.length()) {
+      char ch = this.text.charAt(this.pos++);
+      if (ch == '"') {
+        return result.toString();
+      } else if ((ch == '\\') && (this.pos < this.text.length())) {
+        result.append(this.text.charAt(this.pos++));
+      } else {
+        result.append(ch);
+      } // if / else if / else
+    } // while
+    throw this.error("unterminated string");
+  } // string()
+
+  /**
+   * Parse a bare word: anything up to space or a parenthesis.
+   *
+   * @return the word.
+   */
+  String word() {
+    this.skipSpace();
+    int start = this.pos;
+    while ((this.pos < this.text.length())
+        && !Character.isWhitespace(this.text.charAt(this.pos))
+        && (this.text.charAt(this.pos) != '(')
+        && (this.text.charAt(this.pos) != ')')) {
+      this.pos++;
+    } // while
+    if (start == this.pos) {
+      throw this.error("expected a word");
+    } // if
+    return this.text.substring(start, this.pos);
+  } // word()
+
+  /**
+   * Skip over a given character, preceded by any amount of space.
+   *
+   * @param ch
+   *   The character.
+   */
+  void expect(char ch) {
+    if (this.peek() != ch) {
+      throw this.error("expected '" + ch + "'");
+    } // if
+    this.pos++;
+  } // expect(char)
+
+  /**
+   * Skip any space, then look at the next character.
+   *
+   * @return the next character, or -1 at the end.
+   */
+  int peek() {
+    this.skipSpace();
+    return (this.pos < this.text.length()) ? this.text.charAt(this.pos) : -1;
+  } // peek()
+
+  /**
+   * Skip any space.
+   */
+  void skipSpace() {
+    while ((this.pos < this.text.length()) && Character.isWhitespace(this.text.charAt(this.pos))) {
+      this.pos++;
+    } // while
+  } // skipSpace()
+
+  /**
+   * Build an exception describing a problem at the current position.
+   *
+   * @param problem
+   *   The problem.
+   *
+   * @return the exception.
+   */
+  IllegalArgumentException error(String problem) {
+    return new IllegalArgumentException(problem + " at position " + this.pos);
+  } // error(String)
+
+  /**
+   * Build an exception saying that the scene is too large, as of the
+   * block we just finished.
+   *
+   * @param kind
+   *   The kind of block.
+   *
+   * @return the exception.
+   */
+  TooLargeException tooLarge(String kind) {
+    return new TooLargeException("scene is too large to render, as of the " + kind
+        + " ending at position " + this.pos);
+  } // tooLarge(String)
+} // class SceneParser
@@ -5,9 +5,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import edu.grinnell.csc207.blocks.AsciiBlock;
 import edu.grinnell.csc207.blocks.BezierCurveStamp;
+import edu.grinnell.csc207.blocks.Connectivity;
 import edu.grinnell.csc207.blocks.Empty;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.LineRasterizer;
 import edu.grinnell.csc207.blocks.Rect;
 import edu.grinnell.csc207.blocks.VFlip;
 
@@ -128,4 +135,265 @@ public class TestNewBlock {
     assertEquals(TestUtils.toString(bcsQSoS5x5), TestUtils.toString(bcsQDS5x5));
   }
 
+  /**
+   * Are curves drawn the same no matter how many other curves (of other
+   * degrees and subdivisions) were drawn in between?
+   */
+  @Test
+  public void sharedWeights() throws Exception {
+    String cubic = "..........##\n.........##.\n........##..\n"
+        + "...######...\n.###.##.....\n##..........\n";
+    String quintic = "............\n......#.....\n.....##.....\n"
+        + ".....##.....\n..####......\n###.........\n";
+    for (int round = 0; round < 2; round++) {
+      assertEquals(cubic, TestUtils.toString(new BezierCurveStamp(new Rect('.', 12, 6), '#',
+          3, 7, new int[]{0, 14, -3, 11}, new int[]{5, -2, 9, 0})));
+      assertEquals(quintic, TestUtils.toString(new BezierCurveStamp(new Rect('.', 12, 6), '#',
+          5, 3, new int[]{0, 14, -3, 11, 2, 6}, new int[]{5, -2, 9, 0, 3, 1})));
+      for (int subdivisions = 1; subdivisions <= 100; subdivisions++) {
+        new BezierCurveStamp(new Rect('.', 3, 3), '#', 1, subdivisions,
+            new int[]{0, 2}, new int[]{2, 0});
+      } // for [subdivisions]
+    } // for [round]
+  } // sharedWeights()
+
+  /**
+   * Are curves of high degree drawn right? A curve whose control points
+   * are evenly spaced along a line is that line, whatever its degree,
+   * so it should cover the same cells as the line itself.
+   */
+  @Test
+  public void highDegree() throws Exception {
+    for (int degree : new int[] {12, 13, 20, 34, 40}) {
+      int[] xs = new int[degree + 1];
+      int[] ys = new int[degree + 1];
+      for (int k = 0; k <= degree; k++) {
+        xs[k] = 2 * k;
+        ys[k] = k;
+      } // for [k]
+      AsciiBlock curve = new BezierCurveStamp(new Rect('.', 2 * degree + 1, degree + 1), '#',
+          degree, degree, xs, ys);
+      AsciiBlock line = new BezierCurveStamp(new Rect('.', 2 * degree + 1, degree + 1), '#',
+          1, degree, new int[] {0, 2 * degree}, new int[] {0, degree});
+      assertEquals(TestUtils.toString(line), TestUtils.toString(curve), "degree " + degree);
+    } // for [degree]
+  } // highDegree()
+
+  /**
+   * Do rasterized lines start and end in the right places, connect
+   * the way we asked, and cover the same cells in either direction?
+   */
+  @Test
+  public void rasterizedLines() {
+    Random random = new Random(207);
+    for (int n = 0; n < 1000; n++) {
+      int x0 = random.nextInt(41) - 20;
+      int y0 = random.nextInt(41) - 20;
+      int x1 = random.nextInt(41) - 20;
+      int y1 = random.nextInt(41) - 20;
+      String line = x0 + "," + y0 + " to " + x1 + "," + y1;
+      for (Connectivity connectivity : Connectivity.values()) {
+        List<int[]> cells = new ArrayList<>();
+        int count = LineRasterizer.line(x0, y0, x1, y1, connectivity,
+            (x, y) -> cells.add(new int[] {x, y}));
+        assertEquals(count, cells.size(), line);
+        assertEquals(x0, cells.get(0)[0], line);
+        assertEquals(y0, cells.get(0)[1], line);
+        assertEquals(x1, cells.get(count - 1)[0], line);
+        assertEquals(y1, cells.get(count - 1)[1], line);
+        for (int c = 1; c < count; c++) {
+          int dx = Math.abs(cells.get(c)[0] - cells.get(c - 1)[0]);
+          int dy = Math.abs(cells.get(c)[1] - cells.get(c - 1)[1]);
+          assertTrue((dx <= 1) && (dy <= 1) && (dx + dy > 0), line);
+        } // for [c]
+        if (connectivity == Connectivity.EIGHT) {
+          assertEquals(Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0)) + 1, count, line);
+        } else {
+          // Four-connected cells differ in exactly one coordinate, even
+          // where the line passes through a corner.
+          for (int c = 1; c < count; c++) {
+            int dx = Math.abs(cells.get(c)[0] - cells.get(c - 1)[0]);
+            int dy = Math.abs(cells.get(c)[1] - cells.get(c - 1)[1]);
+            assertEquals(1, dx + dy, line);
+          } // for [c]
+          assertEquals(Math.abs(x1 - x0) + Math.abs(y1 - y0) + 1, count, line);
+          HashSet<String> forward = new HashSet<>();
+          HashSet<String> backward = new HashSet<>();
+          LineRasterizer.line(x0, y0, x1, y1, connectivity, (x, y) -> forward.add(x + "," + y));
+          LineRasterizer.line(x1, y1, x0, y0, connectivity, (x, y) -> backward.add(x + "," + y));
+          assertEquals(forward, backward, line);
+        } // if / else
+      } // for [connectivity]
+    } // for [n]
+  } // rasterizedLines()
+
+  /**
+   * Does a steep line fill a cell in every row and column it crosses
+   * with four-connected cells, and only one per row with
+   * eight-connected cells?
+   */
+  @Test
+  public void connectivity() throws Exception {
+    AsciiBlock four = new BezierCurveStamp(new Rect('.', 4, 3), '*', 1, 1,
+        new int[]{0, 3}, new int[]{0, 2}, Connectivity.FOUR);
+    AsciiBlock eight = new BezierCurveStamp(new Rect('.', 4, 3), '*', 1, 1,
+        new int[]{0, 3}, new int[]{0, 2}, Connectivity.EIGHT);
+    assertEquals("**..\n.**.\n..**\n", TestUtils.toString(four));
+    assertEquals("*...\n.**.\n...*\n", TestUtils.toString(eight));
+  } // connectivity()
+
+  /**
+   * Does an adaptively split curve stay close to the same curve split
+   * very finely, and include its ends?
+   */
+  @Test
+  public void adaptive() throws Exception {
+    int[][] xs = {{40, -8, -8, 40}, {28, 32, 35, 28}, {40, 18, 23, 40}, {0, 47}};
+    int[][] ys = {{0, 0, 16, 16}, {10, 5, 16, 10}, {16, 11, 20, 20}, {23, 0}};
+    for (int c = 0; c < xs.length; c++) {
+      int degree = xs[c].length - 1;
+      AsciiBlock adaptive = new BezierCurveStamp(new Rect('.', 48, 24), '#', degree,
+          BezierCurveStamp.ADAPTIVE, xs[c], ys[c]);
+      AsciiBlock fine = new BezierCurveStamp(new Rect('.', 48, 24), '#', degree,
+          2000, xs[c], ys[c]);
+      assertEquals('#', adaptive.charAt(ys[c][0], xs[c][0]), "curve " + c);
+      assertEquals('#', adaptive.charAt(ys[c][degree], xs[c][degree]), "curve " + c);
+      assertTrue(near(adaptive, fine), "curve " + c);
+      assertTrue(near(fine, adaptive), "curve " + c);
+    } // for [c]
+    // A curve squeezed into one cell is just that cell.
+    assertEquals("...\n.#.\n...\n", TestUtils.toString(new BezierCurveStamp(
+        new Rect('.', 3, 3), '#', 3, BezierCurveStamp.ADAPTIVE,
+        new int[]{1, 1, 1, 1}, new int[]{1, 1, 1, 1})));
+  } // adaptive()
+
+
+  /**
+   * Do stamps wider than one word of the mask paint the same cells
+   * however much of a row we ask for?
+   */
+  @Test
+  public void wideStamp() throws Exception {
+    AsciiBlock stamp = new BezierCurveStamp(new Rect('.', 150, 3), '#', 1, 1,
+        new int[]{0, 149}, new int[]{0, 2}, Connectivity.EIGHT);
+    int count = LineRasterizer.line(0, 0, 149, 2, Connectivity.EIGHT, (x, y) -> { });
+    char[][] cells = AsciiBlock.render(stamp);
+    int stamped = 0;
+    for (int i = 0; i < 3; i++) {
+      String row = stamp.row(i);
+      for (int j = 0; j < 150; j++) {
+        assertEquals(stamp.charAt(i, j), row.charAt(j));
+        assertEquals(row.charAt(j), cells[i][j]);
+        stamped += (row.charAt(j) == '#') ? 1 : 0;
+      } // for [j]
+      for (int from : new int[]{0, 1, 63, 64, 65, 100, 127, 128}) {
+        for (int to : new int[]{from, from + 1, 64, 128, 129, 150}) {
+          if (to >= from && to <= 150) {
+            char[] part = new char[to - from];
+            stamp.renderRow(i, from, to, part, 0);
+            assertEquals(row.substring(from, to), new String(part), from + " to " + to);
+          } // if
+        } // for [to]
+      } // for [from]
+    } // for [i]
+    assertEquals(count, stamped);
+  } // wideStamp()
+
+
+  /**
+   * Does a thin curve over a huge background cover exactly the cells
+   * the rasterizer plots, leaving the other rows alone?
+   */
+  @Test
+  public void hugeBackground() throws Exception {
+    AsciiBlock stamp = new BezierCurveStamp(new Grid(new Rect('.', 100, 100), 100, 100), '#',
+        1, 1, new int[]{-50, 9999}, new int[]{30, 6030});
+    assertCovers(stamp, new int[]{-50, 9999}, new int[]{30, 6030}, 37);
+  } // hugeBackground()
+
+  /**
+   * Does a curve that covers much of a large background cover exactly
+   * the cells the rasterizer plots?
+   */
+  @Test
+  public void denseCurve() throws Exception {
+    int[] xs = new int[41];
+    int[] ys = new int[41];
+    for (int k = 0; k <= 40; k++) {
+      xs[k] = (k % 2) * 999;
+      ys[k] = k * 25;
+    } // for [k]
+    AsciiBlock stamp = new BezierCurveStamp(new Rect('.', 1000, 1000), '#', 1, 1, xs, ys);
+    assertCovers(stamp, xs, ys, 7);
+  } // denseCurve()
+
+  /**
+   * Check that some rows of a stamp with a '#' polyline over a '.'
+   * background have '#' exactly where the rasterizer plots cells, and
+   * that every way of getting at those rows agrees.
+   *
+   * @param stamp
+   *   The stamp.
+   * @param xs
+   *   The x coordinates of the polyline.
+   * @param ys
+   *   The y coordinates of the polyline.
+   * @param step
+   *   How many rows to move between the rows we check.
+   */
+  static void assertCovers(AsciiBlock stamp, int[] xs, int[] ys, int step) {
+    HashSet<Long> expected = new HashSet<>();
+    for (int k = 0; k < xs.length - 1; k++) {
+      LineRasterizer.line(xs[k], ys[k], xs[k + 1], ys[k + 1], Connectivity.FOUR,
+          (x, y) -> expected.add(((long) y << 32) | (x & 0xFFFFFFFFL)));
+    } // for [k]
+    int w = stamp.width();
+    char[] row = new char[w];
+    for (int i = 0; i < stamp.height(); i += step) {
+      stamp.renderRow(i, row, 0);
+      for (int j = 0; j < w; j++) {
+        assertEquals(expected.contains(((long) i << 32) | j) ? '#' : '.', row[j], i + "," + j);
+        assertEquals(row[j], stamp.charAt(i, j), i + "," + j);
+      } // for [j]
+      int from = (i * 31) % (w / 2);
+      char[] part = new char[w / 3];
+      stamp.renderRow(i, from, from + part.length, part, 0);
+      assertEquals(new String(row, from, part.length), new String(part), "row " + i);
+    } // for [i]
+  } // assertCovers(AsciiBlock, int[], int[], int)
+
+  /**
+   * Determine if every stamped cell of one block is within one cell
+   * of a stamped cell of another.
+   *
+   * @param one
+   *   One block.
+   * @param other
+   *   The other block.
+   *
+   * @return true if so and false otherwise.
+   */
+  static boolean near(AsciiBlock one, AsciiBlock other) {
+    for (int i = 0; i < one.height(); i++) {
+      for (int j = 0; j < one.width(); j++) {
+        if (one.charAt(i, j) != '#') {
+          continue;
+        } // if
+        boolean found = false;
+        for (int di = -1; di <= 1; di++) {
+          for (int dj = -1; dj <= 1; dj++) {
+            int r = i + di;
+            int col = j + dj;
+            found |= (r >= 0) && (r < other.height()) && (col >= 0)
+                && (col < other.width()) && (other.charAt(r, col) == '#');
+          } // for [dj]
+        } // for [di]
+        if (!found) {
+          return false;
+        } // if
+      } // for [j]
+    } // for [i]
+    return true;
+  } // near(AsciiBlock, AsciiBlock)
+
 } // class TestNewBlock
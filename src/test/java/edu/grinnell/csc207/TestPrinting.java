@@ -0,0 +1,623 @@
+package edu.grinnell.csc207;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.Empty;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.Line;
+import edu.grinnell.csc207.blocks.Rect;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.io.AnimationLoop;
+import edu.grinnell.csc207.io.BlockPrinter;
+import edu.grinnell.csc207.io.ChannelRenderer;
+import edu.grinnell.csc207.io.FrameStats;
+import edu.grinnell.csc207.io.MappedExporter;
+import edu.grinnell.csc207.io.PipelinedPrinter;
+import edu.grinnell.csc207.io.RowPublisher;
+import edu.grinnell.csc207.io.TerminalRenderer;
+import edu.grinnell.csc207.main.Art80x24;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the ways we print blocks.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class TestPrinting {
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Print a block the original way.
+   *
+   * @param block
+   *   The block to print.
+   *
+   * @return what got printed.
+   */
+  static String printed(AsciiBlock block) {
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    AsciiBlock.print(pen, block);
+    pen.flush();
+    return out.toString();
+  } // printed(AsciiBlock)
+
+  // +---------------+-----------------------------------------------
+  // | Block printer |
+  // +---------------+
+
+  /**
+   * Does the block printer print the same thing as AsciiBlock.print
+   * to a Writer, whatever the size of its buffer?
+   */
+  @Test
+  public void testPrinterWriter() throws Exception {
+    AsciiBlock block = Art80x24.pumpkin();
+    String expected = printed(block);
+    for (int capacity : new int[] {1, 7, 81, BlockPrinter.DEFAULT_CAPACITY}) {
+      StringWriter out = new StringWriter();
+      BlockPrinter printer = new BlockPrinter(out, capacity);
+      printer.print(block);
+      printer.flush();
+      assertEquals(expected, out.toString(), "capacity " + capacity);
+      assertEquals(24, printer.rows());
+      assertEquals(expected.length(), printer.chars());
+    } // for [capacity]
+  } // testPrinterWriter()
+
+  /**
+   * Does the block printer work with a plain Appendable?
+   */
+  @Test
+  public void testPrinterAppendable() throws Exception {
+    AsciiBlock block = new Grid(new Boxed(new Line("Hi")), 3, 2);
+    StringBuilder out = new StringBuilder();
+    BlockPrinter printer = new BlockPrinter(out, 10);
+    printer.println("Caption");
+    printer.print(block);
+    printer.flush();
+    assertEquals("Caption" + System.lineSeparator() + printed(block), out.toString());
+    assertEquals(7, printer.rows());
+  } // testPrinterAppendable()
+
+  /**
+   * Does the block printer count bytes, rather than characters, when
+   * writing to a stream?
+   */
+  @Test
+  public void testPrinterStream() throws Exception {
+    AsciiBlock block = new Boxed(new Line("café"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BlockPrinter printer = new BlockPrinter(out, StandardCharsets.UTF_8, 4);
+    printer.print(block);
+    printer.flush();
+    byte[] expected = printed(block).getBytes(StandardCharsets.UTF_8);
+    assertEquals(new String(expected, StandardCharsets.UTF_8),
+        out.toString(StandardCharsets.UTF_8));
+    assertEquals(expected.length, printer.bytes());
+    assertEquals(expected.length - 1, printer.chars());
+  } // testPrinterStream()
+
+  /**
+   * Do characters outside the basic plane survive being split across
+   * the end of the buffer?
+   */
+  @Test
+  public void testPrinterSurrogates() throws Exception {
+    String text = "a\uD83C\uDF83b\uD83C\uDF83\uD83C\uDF83cd\uD83D\uDC7B";
+    AsciiBlock block = new Grid(new Line(text), 2, 3);
+    String expected = text + System.lineSeparator() + printed(block);
+    for (int capacity = 1; capacity <= text.length() + 2; capacity++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BlockPrinter printer = new BlockPrinter(out, StandardCharsets.UTF_8, capacity);
+      printer.println(text);
+      printer.print(block);
+      printer.flush();
+      assertEquals(expected, out.toString(StandardCharsets.UTF_8), "capacity " + capacity);
+      assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, printer.bytes());
+      assertEquals(expected.length(), printer.chars());
+    } // for [capacity]
+  } // testPrinterSurrogates()
+
+  // +-----------------+---------------------------------------------
+  // | Mapped exporter |
+  // +-----------------+
+
+  /**
+   * Does the mapped exporter write the same rows as print, with plain
+   * newlines, however many regions it needs?
+   */
+  @Test
+  public void testMappedExport(@TempDir Path dir) throws Exception {
+    AsciiBlock block = new Grid(Art80x24.pumpkin(), 3, 5);
+    String expected = printed(block).replace(System.lineSeparator(), "\n");
+    for (int region : new int[] {1, 100, 81 * 7, MappedExporter.DEFAULT_REGION}) {
+      Path file = dir.resolve("region" + region + ".txt");
+      long written = new MappedExporter(region).export(block, file);
+      assertEquals(MappedExporter.size(block), written);
+      assertEquals(written, Files.size(file));
+      assertEquals(expected, Files.readString(file, StandardCharsets.US_ASCII));
+    } // for [region]
+  } // testMappedExport(Path)
+
+  /**
+   * Does the mapped exporter replace what was in the file, and handle
+   * empty blocks and characters outside of ASCII?
+   */
+  @Test
+  public void testMappedExportEdges(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("block.txt");
+    Files.writeString(file, "old contents that are longer than the block");
+    MappedExporter exporter = new MappedExporter();
+    assertEquals(0, exporter.export(new Empty(), file));
+    assertEquals(0, Files.size(file));
+    exporter.export(new Line("café"), file);
+    assertEquals("caf?\n", Files.readString(file, StandardCharsets.US_ASCII));
+  } // testMappedExportEdges(Path)
+
+  // +------------------+--------------------------------------------
+  // | Channel renderer |
+  // +------------------+
+
+  /**
+   * Does printing to a channel print the same bytes as printing to a
+   * PrintWriter, whatever the size of the buffer?
+   */
+  @Test
+  public void testChannelPrint() throws Exception {
+    AsciiBlock block = new Grid(Art80x24.pumpkin(), 2, 2);
+    byte[] expected = printed(block).getBytes(StandardCharsets.US_ASCII);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AsciiBlock.print(Channels.newChannel(out), block);
+    assertEquals(new String(expected, StandardCharsets.US_ASCII),
+        out.toString(StandardCharsets.US_ASCII));
+    for (int capacity : new int[] {16, 100, 4096}) {
+      out.reset();
+      ChannelRenderer renderer = new ChannelRenderer(Channels.newChannel(out), capacity);
+      renderer.print(block);
+      renderer.flush();
+      assertEquals(expected.length, renderer.bytes());
+      assertEquals(48, renderer.rows());
+      assertEquals(new String(expected, StandardCharsets.US_ASCII),
+          out.toString(StandardCharsets.US_ASCII));
+    } // for [capacity]
+  } // testChannelPrint()
+
+  /**
+   * Do rows with characters outside of ASCII come out as UTF-8?
+   */
+  @Test
+  public void testChannelUtf8() throws Exception {
+    AsciiBlock block = new Boxed(new Line("naïve ☃"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ChannelRenderer renderer = new ChannelRenderer(Channels.newChannel(out), 16);
+    renderer.println("caption");
+    renderer.print(block);
+    renderer.flush();
+    String expected = "caption" + System.lineSeparator() + printed(block);
+    assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, renderer.bytes());
+  } // testChannelUtf8()
+
+  // +-------------------+-------------------------------------------
+  // | Pipelined printer |
+  // +-------------------+
+
+  /**
+   * Does the pipelined printer print exactly what print does, however
+   * many threads, slots, and rows per chunk it uses?
+   */
+  @Test
+  public void testPipelined() throws Exception {
+    AsciiBlock block = new Grid(Art80x24.pumpkin(), 2, 7);
+    String expected = printed(block);
+    for (int threads = 1; threads <= 4; threads++) {
+      for (int slots : new int[] {1, 2, 5}) {
+        for (int rows : new int[] {1, 10, 1000}) {
+          StringWriter out = new StringWriter();
+          PipelinedPrinter printer = new PipelinedPrinter(out, threads, slots, rows);
+          printer.print(block);
+          assertEquals(expected, out.toString(),
+              threads + " threads, " + slots + " slots, " + rows + " rows");
+          assertEquals(block.height(), printer.rows());
+        } // for [rows]
+      } // for [slots]
+    } // for [threads]
+    StringWriter out = new StringWriter();
+    new PipelinedPrinter(out).print(block);
+    assertEquals(expected, out.toString());
+  } // testPipelined()
+
+  /**
+   * Does the pipelined printer note missing rows as print does, and
+   * give up cleanly when the writer fails?
+   */
+  @Test
+  public void testPipelinedErrors() throws Exception {
+    AsciiBlock broken = new AsciiBlock() {
+      public String row(int i) throws Exception {
+        if (i % 3 == 1) {
+          throw new Exception("no row " + i);
+        } // if
+        return "row " + i;
+      } // row(int)
+
+      public int height() {
+        return 7;
+      } // height()
+
+      public int width() {
+        return 5;
+      } // width()
+
+      public boolean eqv(AsciiBlock other) {
+        return false;
+      } // eqv(AsciiBlock)
+    };
+    StringWriter out = new StringWriter();
+    new PipelinedPrinter(out, 2, 2, 2).print(broken);
+    assertEquals(printed(broken), out.toString());
+
+    Writer failing = new StringWriter() {
+      @Override
+      public void write(char[] buf, int off, int len) {
+        throw new UncheckedIOException(new IOException("disk full"));
+      } // write(char[], int, int)
+    };
+    PipelinedPrinter printer = new PipelinedPrinter(failing, 3, 2, 1);
+    assertThrows(UncheckedIOException.class,
+        () -> printer.print(new Grid(new Line("x"), 1, 1000)));
+  } // testPipelinedErrors()
+
+  // +---------------+-----------------------------------------------
+  // | Row publisher |
+  // +---------------+
+
+  /**
+   * A subscriber that remembers what it was sent and asks for rows a
+   * few at a time.
+   */
+  static class Collector implements Flow.Subscriber<String> {
+    /** The rows received. */
+    List<String> rows = new ArrayList<>();
+
+    /** How many rows to ask for at a time. */
+    int batch;
+
+    /** Stop after this many rows. */
+    int stopAfter;
+
+    /** The subscription. */
+    Flow.Subscription subscription;
+
+    /** Completed when we are told we are done (or failed). */
+    CompletableFuture<String> done = new CompletableFuture<>();
+
+    /**
+     * Build a collector.
+     *
+     * @param perRequest
+     *   How many rows to ask for at a time.
+     * @param limit
+     *   Cancel after this many rows.
+     */
+    Collector(int perRequest, int limit) {
+      this.batch = perRequest;
+      this.stopAfter = limit;
+    } // Collector(int, int)
+
+    @Override
+    public void onSubscribe(Flow.Subscription sub) {
+      this.subscription = sub;
+      sub.request(this.batch);
+    } // onSubscribe(Flow.Subscription)
+
+    @Override
+    public void onNext(String row) {
+      this.rows.add(row);
+      if (this.rows.size() == this.stopAfter) {
+        this.subscription.cancel();
+        this.done.complete("cancelled");
+      } else if (this.rows.size() % this.batch == 0) {
+        this.subscription.request(this.batch);
+      } // if / else if
+    } // onNext(String)
+
+    @Override
+    public void onError(Throwable e) {
+      this.done.complete("error: " + e.getMessage());
+    } // onError(Throwable)
+
+    @Override
+    public void onComplete() {
+      this.done.complete("complete");
+    } // onComplete()
+  } // class Collector
+
+  /**
+   * Do several subscribers at once each get every row, in order, however
+   * they ask for them?
+   */
+  @Test
+  public void testPublisher() throws Exception {
+    AsciiBlock block = new Grid(Art80x24.pumpkin(), 1, 20);
+    List<String> expected = List.of(block.rows().toArray(String[]::new));
+    ExecutorService pool = Executors.newFixedThreadPool(3);
+    try {
+      RowPublisher publisher = new RowPublisher(block, pool);
+      List<Collector> collectors = new ArrayList<>();
+      for (int batch : new int[] {1, 7, 1000}) {
+        Collector collector = new Collector(batch, -1);
+        collectors.add(collector);
+        publisher.subscribe(collector);
+      } // for [batch]
+      for (Collector collector : collectors) {
+        assertEquals("complete", collector.done.get(10, TimeUnit.SECONDS));
+        assertEquals(expected, collector.rows);
+      } // for [collector]
+    } finally {
+      pool.shutdown();
+    } // try/finally
+    Collector empty = new Collector(1, -1);
+    new RowPublisher(new Empty(), Runnable::run).subscribe(empty);
+    assertEquals("complete", empty.done.get());
+  } // testPublisher()
+
+  /**
+   * Does the publisher only render rows that have been asked for, stop
+   * when cancelled, and reject bad requests?
+   */
+  @Test
+  public void testPublisherDemand() throws Exception {
+    int[] built = new int[1];
+    AsciiBlock block = new Grid(new Line("row"), 1, 100) {
+      @Override
+      public String rowUnchecked(int i) {
+        built[0]++;
+        return super.rowUnchecked(i);
+      } // rowUnchecked(int)
+    };
+    Collector slow = new Collector(2, -1) {
+      @Override
+      public void onNext(String row) {
+        this.rows.add(row);
+      } // onNext(String)
+    };
+    RowPublisher publisher = new RowPublisher(block, Runnable::run);
+    publisher.subscribe(slow);
+    assertEquals(2, slow.rows.size());
+    assertEquals(2, built[0]);
+    slow.subscription.request(3);
+    assertEquals(5, built[0]);
+
+    Collector quitter = new Collector(4, 6);
+    publisher.subscribe(quitter);
+    assertEquals("cancelled", quitter.done.get());
+    assertEquals(6, quitter.rows.size());
+    assertEquals(11, built[0]);
+
+    slow.subscription.request(0);
+    assertTrue(slow.done.get().startsWith("error"));
+  } // testPublisherDemand()
+
+  /**
+   * If a subscriber throws from onNext, does the publisher stop sending
+   * to it without calling its onError, and report the exception
+   * somewhere else?
+   */
+  @Test
+  public void testPublisherBrokenSubscriber() throws Exception {
+    AsciiBlock block = new Grid(new Line("row"), 1, 10);
+    Collector broken = new Collector(100, -1) {
+      @Override
+      public void onNext(String row) {
+        this.rows.add(row);
+        if (this.rows.size() == 3) {
+          throw new IllegalStateException("subscriber broke");
+        } // if
+      } // onNext(String)
+    };
+    List<Throwable> reported = new ArrayList<>();
+    Thread thread = Thread.currentThread();
+    Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+    thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+    try {
+      new RowPublisher(block, Runnable::run).subscribe(broken);
+      broken.subscription.request(5);
+    } finally {
+      thread.setUncaughtExceptionHandler(handler);
+    } // try/finally
+    assertEquals(3, broken.rows.size());
+    assertFalse(broken.done.isDone());
+    assertEquals(1, reported.size());
+    assertEquals("subscriber broke", reported.get(0).getMessage());
+  } // testPublisherBrokenSubscriber()
+
+  // +-------------------+-------------------------------------------
+  // | Terminal renderer |
+  // +-------------------+
+
+  /**
+   * An in-memory model of the part of an ANSI terminal we use: clearing
+   * the screen, moving the cursor, and writing characters.
+   */
+  static class Screen implements Appendable {
+    /** The cells of the screen. */
+    char[][] cells = new char[40][120];
+
+    /** The cursor row. */
+    int row;
+
+    /** The cursor column. */
+    int col;
+
+    /**
+     * Build a blank screen.
+     */
+    Screen() {
+      this.clear();
+    } // Screen()
+
+    /**
+     * Clear the screen.
+     */
+    void clear() {
+      for (char[] line : this.cells) {
+        Arrays.fill(line, ' ');
+      } // for [line]
+    } // clear()
+
+    @Override
+    public Appendable append(CharSequence text) {
+      int i = 0;
+      while (i < text.length()) {
+        char ch = text.charAt(i);
+        if (ch == '\u001b') {
+          int end = i + 2;
+          while (!Character.isLetter(text.charAt(end))) {
+            end++;
+          } // while
+          String args = text.subSequence(i + 2, end).toString();
+          if (text.charAt(end) == 'J') {
+            this.clear();
+          } else {
+            String[] parts = args.split(";");
+            this.row = Integer.parseInt(parts[0]) - 1;
+            this.col = (parts.length > 1) ? Integer.parseInt(parts[1]) - 1 : 0;
+          } // if / else
+          i = end + 1;
+        } else {
+          this.cells[this.row][this.col++] = ch;
+          i++;
+        } // if / else
+      } // while
+      return this;
+    } // append(CharSequence)
+
+    @Override
+    public Appendable append(CharSequence text, int start, int end) {
+      return this.append(text.subSequence(start, end));
+    } // append(CharSequence, int, int)
+
+    @Override
+    public Appendable append(char ch) {
+      return this.append(String.valueOf(ch));
+    } // append(char)
+
+    /**
+     * Determine if the top-left corner of the screen shows a block.
+     *
+     * @param block
+     *   The block.
+     *
+     * @return true if it does and false otherwise.
+     */
+    boolean shows(AsciiBlock block) {
+      char[][] expected = AsciiBlock.render(block);
+      for (int i = 0; i < expected.length; i++) {
+        if (!Arrays.equals(expected[i], 0, expected[i].length,
+            this.cells[i], 0, expected[i].length)) {
+          return false;
+        } // if
+      } // for [i]
+      return true;
+    } // shows(AsciiBlock)
+  } // class Screen
+
+  /**
+   * Does the terminal renderer keep the screen showing the current
+   * frame, while sending only what changed?
+   */
+  @Test
+  public void testTerminalDiff() throws Exception {
+    Line caption = new Line("Frame 1");
+    Rect bar = new Rect('#', 3, 2);
+    AsciiBlock frame = new Boxed(new HComp(VAlignment.CENTER,
+        new AsciiBlock[] {caption, new Grid(new Line(" . "), 20, 20), bar}));
+    Screen screen = new Screen();
+    TerminalRenderer renderer = new TerminalRenderer(screen);
+    int full = renderer.frame(frame);
+    assertTrue(screen.shows(frame));
+    assertTrue(full > frame.width() * frame.height());
+
+    int idle = renderer.frame(frame);
+    assertTrue(idle < 10, "nothing changed, yet sent " + idle);
+
+    caption.update("Frame 2");
+    int small = renderer.frame(frame);
+    assertTrue(screen.shows(frame));
+    assertTrue(small < 20, "one cell changed, yet sent " + small);
+
+    caption.update("Frame 3");
+    bar.wider();
+    int resized = renderer.frame(frame);
+    assertTrue(screen.shows(frame));
+    assertTrue(resized > frame.width() * frame.height());
+
+    for (int i = 0; i < 5; i++) {
+      caption.update("Tick " + i + "!");
+      renderer.frame(frame);
+      assertTrue(screen.shows(frame));
+    } // for [i]
+    assertEquals(idle, renderer.frame(frame));
+    assertEquals(idle, renderer.lastFrameSize());
+  } // testTerminalDiff()
+
+  /**
+   * Does the animation loop step the scene once per frame, keep the
+   * screen up to date, and account for every frame?
+   */
+  @Test
+  public void testAnimationLoop() throws Exception {
+    Rect stem = new Rect('^', 4, 2);
+    AsciiBlock scene = Art80x24.pumpkin(stem);
+    Screen screen = new Screen();
+    int[] steps = new int[1];
+    AnimationLoop loop = new AnimationLoop(scene, new TerminalRenderer(screen), 1000,
+        (frame) -> {
+          assertEquals(steps[0]++, frame);
+          if (frame % 2 == 0) {
+            stem.taller();
+          } else {
+            stem.shorter();
+          } // if / else
+        });
+    FrameStats stats = loop.run(25);
+    assertEquals(25, steps[0]);
+    assertEquals(25, stats.framesShown() + stats.framesDropped());
+    assertTrue(stats.framesShown() > 0);
+    assertTrue(stats.drawNanos(50) <= stats.drawNanos(99));
+    assertTrue(screen.shows(scene), stats.toString());
+    assertTrue(stats.toString().contains("frames shown"));
+  } // testAnimationLoop()
+} // class TestPrinting
@@ -0,0 +1,778 @@
+package edu.grinnell.csc207;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.BezierCurveStamp;
+import edu.grinnell.csc207.blocks.BlockListener;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.Empty;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.HAlignment;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.HFlip;
+import edu.grinnell.csc207.blocks.Line;
+import edu.grinnell.csc207.blocks.Lines;
+import edu.grinnell.csc207.blocks.Memoized;
+import edu.grinnell.csc207.blocks.Padded;
+import edu.grinnell.csc207.blocks.Rect;
+import edu.grinnell.csc207.blocks.Surrounded;
+import edu.grinnell.csc207.blocks.Trimmed;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.blocks.VComp;
+import edu.grinnell.csc207.blocks.VFlip;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the bulk rendering paths. Each path should agree with
+ * what we get by asking for rows one at a time.
+ */
+public class TestRender {
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build a selection of blocks that exercises every block type.
+   *
+   * @return the blocks.
+   */
+  static AsciiBlock[] samples() throws Exception {
+    AsciiBlock a = new Rect('A', 5, 2);
+    AsciiBlock b = new Rect('B', 3, 3);
+    AsciiBlock c = new Lines(new String[] {"this", "and", "that", "or"});
+    AsciiBlock hello = new Line("Hello");
+    AsciiBlock stamp = new BezierCurveStamp(new Grid(new Boxed(new Rect(' ', 1, 1)), 7, 7),
+        'n', 2, 10, new int[] {0, 10, 20}, new int[] {0, 40, 0});
+    return new AsciiBlock[] {
+      new Empty(),
+      hello,
+      a,
+      c,
+      new Boxed(c),
+      new Surrounded(new Surrounded(new Line("A"), 'B'), 'C'),
+      new Grid(hello, 3, 4),
+      new Grid(new Empty(), 3, 4),
+      new HComp(VAlignment.TOP, new AsciiBlock[] {a, b, c}),
+      new HComp(VAlignment.CENTER, new AsciiBlock[] {a, b, c}),
+      new HComp(VAlignment.BOTTOM, new AsciiBlock[] {a, new Empty(), b, c}),
+      new VComp(HAlignment.LEFT, new AsciiBlock[] {a, b, c}),
+      new VComp(HAlignment.CENTER, new AsciiBlock[] {a, new Empty(), b, c}),
+      new VComp(HAlignment.RIGHT, new AsciiBlock[] {a, b, c}),
+      new HFlip(new HComp(VAlignment.BOTTOM, new AsciiBlock[] {a, b, c})),
+      new VFlip(new VComp(HAlignment.RIGHT, new AsciiBlock[] {a, b, c})),
+      new Trimmed(new Surrounded(new Surrounded(new Line("A"), 'B'), 'C'),
+          HAlignment.CENTER, VAlignment.CENTER, 3, 3),
+      new Trimmed(new Grid(c, 3, 3), HAlignment.RIGHT, VAlignment.BOTTOM, 7, 5),
+      new Padded(c, '.', HAlignment.LEFT, VAlignment.TOP, 9, 6),
+      new Padded(c, '.', HAlignment.CENTER, VAlignment.CENTER, 9, 7),
+      new Padded(c, '.', HAlignment.RIGHT, VAlignment.BOTTOM, 6, 5),
+      stamp,
+      new HComp(VAlignment.TOP, new AsciiBlock[] {stamp, new HFlip(stamp)}),
+    };
+  } // samples()
+
+  /**
+   * Get all of the rows of a block, one at a time.
+   *
+   * @param block
+   *   The block.
+   *
+   * @return the rows of the block.
+   */
+  static String[] rows(AsciiBlock block) throws Exception {
+    String[] result = new String[block.height()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = block.row(i);
+    } // for [i]
+    return result;
+  } // rows(AsciiBlock)
+
+  // +------------+--------------------------------------------------
+  // | renderInto |
+  // +------------+
+
+  /**
+   * Does painting a whole block into a grid agree with its rows?
+   */
+  @Test
+  public void testRenderMatchesRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      char[][] cells = AsciiBlock.render(block);
+      String[] expected = rows(block);
+      assertEquals(expected.length, cells.length);
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i], new String(cells[i]), "row " + i);
+      } // for [i]
+    } // for [block]
+  } // testRenderMatchesRows()
+
+  /**
+   * Does painting at an offset leave the rest of the grid alone?
+   */
+  @Test
+  public void testRenderAtOffset() throws Exception {
+    AsciiBlock block = new Boxed(new Line("Hi"));
+    char[][] cells = new char[6][8];
+    for (char[] row : cells) {
+      Arrays.fill(row, '#');
+    } // for [row]
+    block.renderInto(cells, 3, 1);
+    assertEquals("########", new String(cells[0]));
+    assertEquals("###/--\\#", new String(cells[1]));
+    assertEquals("###|Hi|#", new String(cells[2]));
+    assertEquals("###\\--/#", new String(cells[3]));
+    assertEquals("########", new String(cells[4]));
+  } // testRenderAtOffset()
+
+  /**
+   * Are padded blocks laid out as their alignments say?
+   */
+  @Test
+  public void testPadded() throws Exception {
+    AsciiBlock ab = new Lines(new String[] {"ab", "cd"});
+    assertEquals("ab..\ncd..\n....\n",
+        TestUtils.toString(new Padded(ab, '.', HAlignment.LEFT, VAlignment.TOP, 4, 3)));
+    assertEquals(".....\n.ab..\n.cd..\n.....\n",
+        TestUtils.toString(new Padded(ab, '.', HAlignment.CENTER, VAlignment.CENTER, 5, 4)));
+    assertEquals("...\n.ab\n.cd\n",
+        TestUtils.toString(new Padded(ab, '.', HAlignment.RIGHT, VAlignment.BOTTOM, 3, 3)));
+  } // testPadded()
+
+  /**
+   * Does rendering notice changes to mutable blocks?
+   */
+  @Test
+  public void testRenderAfterChange() throws Exception {
+    Line line = new Line("Hello");
+    Rect rect = new Rect('x', 2, 2);
+    AsciiBlock block = new VComp(HAlignment.CENTER, new Boxed(line), new Grid(rect, 2, 1));
+    line.update("Goodbye");
+    rect.wider();
+    rect.taller();
+    assertTrue(AsciiBlock.equal(block,
+        new Lines(new String[] {"/-------\\", "|Goodbye|", "\\-------/",
+                                " xxxxxx  ", " xxxxxx  ", " xxxxxx  "})));
+  } // testRenderAfterChange()
+
+  /**
+   * Does a grid with no repetitions leave its neighbors alone?
+   */
+  @Test
+  public void testRenderZeroRepGrid() throws Exception {
+    AsciiBlock[] blocks = new AsciiBlock[] {
+        new HComp(VAlignment.TOP, new Grid(new Line("xy"), 0, 2), new Line("abc")),
+        new HComp(VAlignment.TOP, new Line("abc"), new Grid(new Line("xy"), 2, 0)),
+        new VComp(HAlignment.LEFT, new Grid(new Line("xy"), 0, 1), new Line("abc")),
+        };
+    for (AsciiBlock block : blocks) {
+      char[][] cells = AsciiBlock.render(block);
+      String[] expected = rows(block);
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i], new String(cells[i]), "row " + i);
+      } // for [i]
+    } // for [block]
+    assertEquals("abc", new String(AsciiBlock.render(blocks[0])[0]));
+  } // testRenderZeroRepGrid()
+
+  /**
+   * Is a block padded to less than its own size clipped rather than
+   * painted outside the padding?
+   */
+  @Test
+  public void testRenderUndersizedPadding() throws Exception {
+    AsciiBlock ab = new Lines(new String[] {"abc", "def", "ghi"});
+    AsciiBlock[] blocks = new AsciiBlock[] {
+        new Padded(ab, '.', HAlignment.CENTER, VAlignment.CENTER, 1, 1),
+        new Padded(ab, '.', HAlignment.RIGHT, VAlignment.BOTTOM, 2, 2),
+        new Padded(ab, '.', HAlignment.LEFT, VAlignment.TOP, 5, 2),
+        };
+    for (AsciiBlock block : blocks) {
+      char[][] cells = new char[block.height() + 2][block.width() + 2];
+      for (char[] row : cells) {
+        Arrays.fill(row, '#');
+      } // for [row]
+      block.renderInto(cells, 1, 1);
+      String[] expected = rows(block);
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals("#" + expected[i] + "#", new String(cells[i + 1]), "row " + i);
+      } // for [i]
+      assertEquals("#".repeat(block.width() + 2), new String(cells[0]));
+      assertEquals("#".repeat(block.width() + 2), new String(cells[block.height() + 1]));
+    } // for [block]
+    assertEquals("e", new String(AsciiBlock.render(blocks[0])[0]));
+    assertEquals("hi", new String(AsciiBlock.render(blocks[1])[1]));
+  } // testRenderUndersizedPadding()
+
+  // +-----------+---------------------------------------------------
+  // | renderRow |
+  // +-----------+
+
+  /**
+   * Does painting single rows at an offset agree with the rows?
+   */
+  @Test
+  public void testRenderRowMatchesRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      String[] expected = rows(block);
+      char[] dest = new char[block.width() + 4];
+      for (int i = 0; i < expected.length; i++) {
+        Arrays.fill(dest, '#');
+        block.renderRow(i, dest, 2);
+        assertEquals("##" + expected[i] + "##", new String(dest), "row " + i);
+      } // for [i]
+    } // for [block]
+  } // testRenderRowMatchesRows()
+
+  /**
+   * Can we append the rows of a wide composition to one builder?
+   */
+  @Test
+  public void testAppendWideRow() throws Exception {
+    AsciiBlock[] columns = new AsciiBlock[500];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new Grid(new Line(Integer.toString(i % 10)), 1, 1 + i % 3);
+    } // for [i]
+    AsciiBlock wide = new HComp(VAlignment.BOTTOM, columns);
+    StringBuilder out = new StringBuilder();
+    for (int i = 0; i < wide.height(); i++) {
+      wide.appendRow(i, out);
+    } // for [i]
+    assertEquals(wide.width() * wide.height(), out.length());
+    assertEquals(wide.row(0) + wide.row(1) + wide.row(2), out.toString());
+  } // testAppendWideRow()
+
+  // +-------------+-------------------------------------------------
+  // | Measurement |
+  // +-------------+
+
+  /**
+   * Do nested compositions notice when a leaf deep inside them changes
+   * size, even after they have been measured?
+   */
+  @Test
+  public void testNestedMeasurementAfterChange() throws Exception {
+    Line line = new Line("ab");
+    Rect rect = new Rect('x', 1, 1);
+    AsciiBlock inner = new HComp(VAlignment.TOP, line, rect);
+    AsciiBlock outer = new VComp(HAlignment.LEFT, new AsciiBlock[] {inner, inner});
+    assertEquals(3, outer.width());
+    assertEquals(2, outer.height());
+    line.update("abcd");
+    assertEquals(5, outer.width());
+    rect.taller();
+    rect.wider();
+    assertEquals(6, outer.width());
+    assertEquals(4, outer.height());
+    assertEquals("abcdxx\n    xx\nabcdxx\n    xx\n", TestUtils.toString(outer));
+  } // testNestedMeasurementAfterChange()
+
+  /**
+   * Do tall stacks, including empty and resized members, find the
+   * right block for each row?
+   */
+  @Test
+  public void testTallVComp() throws Exception {
+    AsciiBlock[] stack = new AsciiBlock[3000];
+    for (int i = 0; i < stack.length; i++) {
+      if (i % 7 == 3) {
+        stack[i] = new Empty();
+      } else if (i % 5 == 0) {
+        stack[i] = new Rect((char) ('a' + i % 26), 2, 2);
+      } else {
+        stack[i] = new Line(Integer.toString(i));
+      } // if / else
+    } // for [i]
+    AsciiBlock tall = new VComp(HAlignment.RIGHT, stack);
+    int row = 0;
+    for (int i = 0; i < stack.length; i++) {
+      for (int j = 0; j < stack[i].height(); j++) {
+        String expected = stack[i].row(j);
+        assertEquals(" ".repeat(tall.width() - expected.length()) + expected, tall.row(row++));
+      } // for [j]
+    } // for [i]
+    assertEquals(row, tall.height());
+    ((Rect) stack[0]).taller();
+    assertEquals(row + 1, tall.height());
+    assertEquals("  aa", tall.row(2));
+    assertEquals("   1", tall.row(3));
+  } // testTallVComp()
+
+  // +--------+------------------------------------------------------
+  // | charAt |
+  // +--------+
+
+  /**
+   * Does looking up single cells agree with the rows?
+   */
+  @Test
+  public void testCharAtMatchesRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      String[] expected = rows(block);
+      for (int i = 0; i < expected.length; i++) {
+        for (int j = 0; j < block.width(); j++) {
+          assertEquals(expected[i].charAt(j), block.charAt(i, j), "cell " + i + ", " + j);
+        } // for [j]
+      } // for [i]
+    } // for [block]
+  } // testCharAtMatchesRows()
+
+  // +----------+----------------------------------------------------
+  // | Clipping |
+  // +----------+
+
+  /**
+   * Does painting part of a row agree with the corresponding part of
+   * the row?
+   */
+  @Test
+  public void testClippedRowsMatchRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      String[] expected = rows(block);
+      int w = block.width();
+      for (int i = 0; i < expected.length; i++) {
+        for (int from = 0; from <= w; from++) {
+          for (int to = from; to <= w; to++) {
+            char[] dest = new char[to - from + 1];
+            dest[to - from] = '#';
+            block.renderRow(i, from, to, dest, 0);
+            assertEquals(expected[i].substring(from, to) + "#", new String(dest),
+                "row " + i + ", columns " + from + " to " + to);
+          } // for [to]
+        } // for [from]
+      } // for [i]
+    } // for [block]
+  } // testClippedRowsMatchRows()
+
+  /**
+   * Does painting a clipped rectangle agree with the rows?
+   */
+  @Test
+  public void testClippedRegion() throws Exception {
+    AsciiBlock block = samples()[samples().length - 1];
+    char[][] cells = new char[4][5];
+    block.renderInto(cells, 0, 0, 3, 6, 7, 11);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(block.row(3 + i).substring(6, 11), new String(cells[i]));
+    } // for [i]
+  } // testClippedRegion()
+
+  /**
+   * Does a narrow window onto a very wide block only render the
+   * columns it shows?
+   */
+  @Test
+  public void testClipPushedDown() throws Exception {
+    CountingLine line = new CountingLine("abc");
+    AsciiBlock window = new Trimmed(
+        new HFlip(new Boxed(new HComp(VAlignment.TOP, new Grid(line, 100000, 1), line))),
+        HAlignment.CENTER, VAlignment.CENTER, 10, 1);
+    String row = window.row(0);
+    assertEquals(10, row.length());
+    assertTrue(line.painted <= 13, "painted " + line.painted + " columns");
+    AsciiBlock full = new HFlip(new Boxed(new HComp(VAlignment.TOP,
+        new Grid(new Line("abc"), 100000, 1), new Line("abc"))));
+    int start = (full.width() - 10) / 2;
+    assertEquals(full.row(1).substring(start, start + 10), row);
+  } // testClipPushedDown()
+
+  /**
+   * A line that counts how many columns it is asked to paint.
+   */
+  static class CountingLine extends Line {
+    /** The number of columns painted so far. */
+    int painted = 0;
+
+    /**
+     * Build a new line.
+     *
+     * @param contents
+     *   The contents of the line.
+     */
+    CountingLine(String contents) {
+      super(contents);
+    } // CountingLine(String)
+
+    @Override
+    public void renderRow(int i, int from, int to, char[] dest, int offset) {
+      this.painted += to - from;
+      super.renderRow(i, from, to, dest, offset);
+    } // renderRow(int, int, int, char[], int)
+  } // class CountingLine
+
+  // +--------------+------------------------------------------------
+  // | Row checking |
+  // +--------------+
+
+  /**
+   * Does the checked row accessor still reject bad rows, while the
+   * unchecked one agrees with it on good rows?
+   */
+  @Test
+  public void testCheckedAndUncheckedRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      for (int i = 0; i < block.height(); i++) {
+        assertEquals(block.row(i), block.rowUnchecked(i));
+      } // for [i]
+      assertThrows(Exception.class, () -> block.row(-1));
+      assertThrows(Exception.class, () -> block.row(block.height()));
+    } // for [block]
+  } // testCheckedAndUncheckedRows()
+
+  /**
+   * Do the unchecked rows of every block, joined up, give what the
+   * checked rows give?
+   */
+  @Test
+  public void testUncheckedRows() throws Exception {
+    for (AsciiBlock block : samples()) {
+      StringBuilder unchecked = new StringBuilder();
+      for (int i = 0; i < block.height(); i++) {
+        unchecked.append(block.rowUnchecked(i)).append("\n");
+      } // for [i]
+      assertEquals(TestUtils.toString(block), unchecked.toString());
+      assertTrue(TestUtils.same(block, new Lines(rows(block))));
+    } // for [block]
+  } // testUncheckedRows()
+
+  /**
+   * Do the checked and unchecked rows of a block trimmed to more than
+   * it has agree on the error they show, and does every way of
+   * painting it show the same thing?
+   */
+  @Test
+  public void testUncheckedRowsTooSmall() throws Exception {
+    AsciiBlock[] blocks = new AsciiBlock[] {
+        new Trimmed(new Line("abc"), HAlignment.LEFT, VAlignment.TOP, 5, 2),
+        new Trimmed(new Rect('x', 2, 2), HAlignment.CENTER, VAlignment.CENTER, 60, 1),
+        };
+    for (AsciiBlock block : blocks) {
+      char[][] cells = AsciiBlock.render(block);
+      for (int i = 0; i < block.height(); i++) {
+        assertEquals(block.rowUnchecked(i), block.row(i), "row " + i);
+        assertEquals(block.row(i), new String(cells[i]), "row " + i);
+        assertEquals(block.width(), block.row(i).length(), "row " + i);
+      } // for [i]
+      assertThrows(Exception.class, () -> block.row(block.height()));
+    } // for [block]
+    assertEquals("Error", blocks[0].row(1));
+    assertTrue(blocks[1].row(0).startsWith("Error: "));
+  } // testUncheckedRowsTooSmall()
+
+  /**
+   * Does comparing a block that cannot produce some row give false
+   * rather than an exception?
+   */
+  @Test
+  public void testEqualMissingRow() throws Exception {
+    AsciiBlock broken = new AsciiBlock() {
+      public String row(int i) throws Exception {
+        if (i == 1) {
+          throw new Exception("Invalid row " + i);
+        } // if
+        return "ab";
+      } // row(int)
+
+      public int height() {
+        return 2;
+      } // height()
+
+      public int width() {
+        return 2;
+      } // width()
+
+      public boolean eqv(AsciiBlock other) {
+        return other == this;
+      } // eqv(AsciiBlock)
+    };
+    AsciiBlock fine = new Lines(new String[] {"ab", "cd"});
+    assertFalse(AsciiBlock.equal(broken, fine));
+    assertFalse(AsciiBlock.equal(fine, broken));
+    assertFalse(TestUtils.same(broken, fine));
+    assertEquals("ab\n*** ERROR ***\n", TestUtils.toString(broken));
+  } // testEqualMissingRow()
+
+  // +-------------+-------------------------------------------------
+  // | Memoization |
+  // +-------------+
+
+  /**
+   * Does a memoized block paint its child only once, however often we
+   * ask for its rows?
+   */
+  @Test
+  public void testMemoizedHits() throws Exception {
+    CountingLine line = new CountingLine("Hello");
+    AsciiBlock memo = new Memoized(new Boxed(line));
+    String[] first = rows(memo);
+    int painted = line.painted;
+    assertEquals(5, painted);
+    assertTrue(Arrays.equals(first, rows(memo)));
+    AsciiBlock.render(memo);
+    memo.charAt(1, 3);
+    assertEquals(painted, line.painted);
+  } // testMemoizedHits()
+
+  /**
+   * Does a memoized block forget its rows when something below it
+   * changes?
+   */
+  @Test
+  public void testMemoizedInvalidation() throws Exception {
+    Line line = new Line("Hello");
+    Rect rect = new Rect('*', 2, 1);
+    AsciiBlock memo =
+        new Memoized(new HComp(VAlignment.TOP, new AsciiBlock[] {line, rect}));
+    assertEquals("Hello**", memo.row(0));
+    line.update("Bye");
+    assertEquals("Bye**", memo.row(0));
+    rect.taller();
+    assertEquals(2, memo.height());
+    assertEquals("   **", memo.row(1));
+    assertTrue(Arrays.equals(rows(memo),
+        rows(new HComp(VAlignment.TOP, new AsciiBlock[] {line, rect}))));
+  } // testMemoizedInvalidation()
+
+  // +---------------+-----------------------------------------------
+  // | Notification |
+  // +---------------+
+
+  /**
+   * Do changes to a leaf reach a listener on an ancestor, through
+   * wrappers and compositions, saying whether the size changed?
+   */
+  @Test
+  public void testNotification() throws Exception {
+    Line line = new Line("Hello");
+    Rect rect = new Rect('*', 2, 2);
+    AsciiBlock root = new Boxed(new VComp(HAlignment.LEFT,
+        new AsciiBlock[] {new Padded(line, ' ', HAlignment.LEFT, VAlignment.TOP, 6, 1),
+                          new HFlip(rect)}));
+    boolean[] heard = new boolean[2];
+    BlockListener listener = (source, resized) -> {
+      heard[0] = true;
+      heard[1] = resized;
+    };
+    root.addListener(listener);
+    long before = root.version();
+    line.update("Howdy");
+    assertTrue(heard[0]);
+    assertFalse(heard[1]);
+    heard[0] = false;
+    rect.wider();
+    assertTrue(heard[0]);
+    assertTrue(heard[1]);
+    assertTrue(root.version() > before);
+  } // testNotification()
+
+  /**
+   * Do compositions keep their measurements when a block changes only
+   * its contents, and measure again when a block changes size?
+   */
+  @Test
+  public void testIncrementalMeasurement() throws Exception {
+    Line line = new Line("Hi");
+    Rect rect = new Rect('*', 1, 1);
+    AsciiBlock comp = new HComp(VAlignment.BOTTOM, new AsciiBlock[] {line, rect});
+    long before = comp.version();
+    line.update("Yo");
+    assertTrue(comp.version() > before);
+    assertEquals("Yo*", comp.row(0));
+    rect.taller();
+    line.update("Hey");
+    assertEquals(4, comp.width());
+    assertEquals(2, comp.height());
+    assertEquals("   *", comp.row(0));
+    assertEquals("Hey*", comp.row(1));
+  } // testIncrementalMeasurement()
+
+  /**
+   * Does a stamp draw its curve again when the block below it grows?
+   */
+  @Test
+  public void testStampFollowsResize() throws Exception {
+    Rect background = new Rect('.', 4, 4);
+    AsciiBlock stamp = new BezierCurveStamp(background, '#', 3, 20,
+        new int[] {0, 2, 6, 7}, new int[] {0, 7, 7, 0});
+    for (int i = 0; i < 4; i++) {
+      background.wider();
+      background.taller();
+    } // for [i]
+    AsciiBlock fresh = new BezierCurveStamp(new Rect('.', 8, 8), '#', 3, 20,
+        new int[] {0, 2, 6, 7}, new int[] {0, 7, 7, 0});
+    assertTrue(Arrays.equals(rows(fresh), rows(stamp)));
+  } // testStampFollowsResize()
+
+  // +----------+----------------------------------------------------
+  // | Parallel |
+  // +----------+
+
+  /**
+   * Does rendering in parallel give the same grid as rendering on one
+   * thread, for small and large blocks?
+   */
+  @Test
+  public void testRenderParallel() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (AsciiBlock block : samples()) {
+        AsciiBlock big = new Grid(block, 3, 400);
+        assertTrue(Arrays.deepEquals(AsciiBlock.render(block),
+            AsciiBlock.renderParallel(block, pool)));
+        assertTrue(Arrays.deepEquals(AsciiBlock.render(big),
+            AsciiBlock.renderParallel(big, pool)));
+        assertTrue(Arrays.deepEquals(AsciiBlock.render(big),
+            AsciiBlock.renderParallel(big)));
+      } // for [block]
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testRenderParallel()
+
+  /**
+   * If a block changes while we render it in parallel, do we still get
+   * a consistent picture of it?
+   */
+  @Test
+  public void testRenderParallelChange() throws Exception {
+    Line victim = new Line("before");
+    Line saboteur = new Line("!") {
+      @Override
+      public void renderRow(int i, int from, int to, char[] dest, int offset) {
+        victim.update("after, and longer");
+        super.renderRow(i, from, to, dest, offset);
+      } // renderRow(int, int, int, char[], int)
+    };
+    AsciiBlock block = new Grid(new VComp(HAlignment.LEFT,
+        new AsciiBlock[] {victim, saboteur}), 2, 2000);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      char[][] cells = AsciiBlock.renderParallel(block, pool);
+      assertTrue(Arrays.deepEquals(AsciiBlock.render(block), cells));
+      assertEquals("after, and longerafter, and longer", new String(cells[0]));
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testRenderParallelChange()
+
+  /**
+   * If a block shrinks while we print it, is every line we print a
+   * whole row of it, whether or not we render in parallel?
+   */
+  @Test
+  public void testPrintParallelChange() throws Exception {
+    for (int threads : new int[] {4, 1}) {
+      Line victim = new Line("before, and later");
+      Line saboteur = new Line("!") {
+        @Override
+        public void renderRow(int i, int from, int to, char[] dest, int offset) {
+          victim.update("ab");
+          super.renderRow(i, from, to, dest, offset);
+        } // renderRow(int, int, int, char[], int)
+      };
+      AsciiBlock block = new Grid(new VComp(HAlignment.LEFT,
+          new AsciiBlock[] {victim, saboteur}), 2, 2000);
+      assertEquals(34, block.width());
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        StringWriter out = new StringWriter();
+        PrintWriter pen = new PrintWriter(out);
+        AsciiBlock.print(pen, block, pool);
+        pen.flush();
+        assertEquals(2, victim.width());
+        assertEquals(String.join(System.lineSeparator(), rows(block))
+            + System.lineSeparator(), out.toString(), "threads: " + threads);
+      } finally {
+        pool.shutdown();
+      } // try/finally
+    } // for [threads]
+  } // testPrintParallelChange()
+
+  /**
+   * Does printing a block taller than one band print every row once,
+   * in order?
+   */
+  @Test
+  public void testPrintInBands() throws Exception {
+    AsciiBlock block = new Grid(new Boxed(new Line("Hi")), 250, 400);
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    AsciiBlock.print(pen, block);
+    pen.flush();
+    String[] expected = rows(block);
+    assertEquals(String.join(System.lineSeparator(), expected) + System.lineSeparator(),
+        out.toString());
+  } // testPrintInBands()
+
+  /**
+   * Does comparing blocks band by band notice differences in any band,
+   * and stop at the first one without rendering whole frames?
+   */
+  @Test
+  public void testEqualInBands() throws Exception {
+    AsciiBlock tall = new Grid(new Boxed(new Line("Hi")), 250, 400);
+    Line last = new Line("Hi");
+    AsciiBlock other = new VComp(HAlignment.LEFT,
+        new Grid(new Boxed(new Line("Hi")), 250, 399), new Grid(new Boxed(last), 250, 1));
+    assertTrue(AsciiBlock.equal(tall, other));
+    last.update("Ho");
+    assertFalse(AsciiBlock.equal(tall, other));
+    assertFalse(AsciiBlock.equal(new Grid(new Line("x"), 20000, 20000),
+        new Grid(new Line("y"), 20000, 20000)));
+  } // testEqualInBands()
+
+  // +---------+-----------------------------------------------------
+  // | Streams |
+  // +---------+
+
+  /**
+   * Do row streams, sequential or parallel, give the rows in order?
+   */
+  @Test
+  public void testRowStreams() throws Exception {
+    for (AsciiBlock block : samples()) {
+      AsciiBlock tall = new Grid(block, 1, 50);
+      String[] expected = rows(tall);
+      assertTrue(Arrays.equals(expected, tall.rows().toArray(String[]::new)));
+      assertTrue(Arrays.equals(expected, tall.rows().parallel().toArray(String[]::new)));
+      assertEquals(String.join("\n", expected),
+          tall.rows().parallel().collect(Collectors.joining("\n")));
+      assertTrue(Arrays.equals(Arrays.copyOfRange(expected, Math.min(3, expected.length),
+          Math.min(8, expected.length)), tall.rows().skip(3).limit(5).toArray(String[]::new)));
+    } // for [block]
+  } // testRowStreams()
+
+  /**
+   * Are row streams lazy, and do their spliterators split evenly?
+   */
+  @Test
+  public void testRowSpliterator() throws Exception {
+    CountingLine line = new CountingLine("lazy");
+    AsciiBlock block = new VComp(HAlignment.LEFT,
+        new AsciiBlock[] {new Rect('*', 4, 1000), new Boxed(line)});
+    assertEquals(3, block.rows().filter((row) -> row.startsWith("*")).limit(3).count());
+    assertEquals(0, line.painted);
+
+    Spliterator<String> rest = block.rowSpliterator();
+    assertTrue(rest.hasCharacteristics(Spliterator.ORDERED | Spliterator.SIZED
+        | Spliterator.SUBSIZED));
+    assertEquals(1003, rest.getExactSizeIfKnown());
+    Spliterator<String> first = rest.trySplit();
+    assertEquals(501, first.estimateSize());
+    assertEquals(502, rest.estimateSize());
+    Spliterator<String> second = rest.trySplit();
+    assertEquals(251, second.estimateSize());
+    assertEquals(251, rest.estimateSize());
+  } // testRowSpliterator()
+} // class TestRender
@@ -0,0 +1,345 @@
+package edu.grinnell.csc207;
+
+import edu.grinnell.csc207.blocks.AsciiBlock;
+import edu.grinnell.csc207.blocks.BezierCurveStamp;
+import edu.grinnell.csc207.blocks.Boxed;
+import edu.grinnell.csc207.blocks.Grid;
+import edu.grinnell.csc207.blocks.HAlignment;
+import edu.grinnell.csc207.blocks.HComp;
+import edu.grinnell.csc207.blocks.Line;
+import edu.grinnell.csc207.blocks.Padded;
+import edu.grinnell.csc207.blocks.Rect;
+import edu.grinnell.csc207.blocks.Surrounded;
+import edu.grinnell.csc207.blocks.VAlignment;
+import edu.grinnell.csc207.blocks.VComp;
+import edu.grinnell.csc207.main.Art80x24;
+import edu.grinnell.csc207.server.RenderServer;
+import edu.grinnell.csc207.server.SceneParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the render server and the scenes it understands.
+ *
+ * @author Cade Johnston
+ * @author Nicky Moreno Gonzalez
+ */
+public class TestServer {
+  // +--------+------------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The server under test.
+   */
+  RenderServer server;
+
+  /**
+   * A client to talk to it.
+   */
+  HttpClient client = HttpClient.newHttpClient();
+
+  // +---------+-----------------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Start a server on any free port.
+   */
+  @BeforeEach
+  public void startServer() throws Exception {
+    this.server = new RenderServer(0);
+    this.server.start();
+  } // startServer()
+
+  /**
+   * Stop the server.
+   */
+  @AfterEach
+  public void stopServer() {
+    this.server.stop();
+  } // stopServer()
+
+  /**
+   * Build the address of something on the server.
+   *
+   * @param path
+   *   The path (and query, if any).
+   *
+   * @return the address.
+   */
+  URI uri(String path) {
+    return URI.create("http://localhost:" + this.server.port() + path);
+  } // uri(String)
+
+  /**
+   * Ask the server to render a scene with GET.
+   *
+   * @param scene
+   *   The description of the scene.
+   *
+   * @return the response.
+   */
+  HttpResponse<String> get(String scene) throws Exception {
+    return this.client.send(
+        HttpRequest.newBuilder(
+            uri("/render?scene=" + URLEncoder.encode(scene, StandardCharsets.UTF_8)))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+  } // get(String)
+
+  /**
+   * Ask the server to render a scene with POST.
+   *
+   * @param scene
+   *   The description of the scene.
+   *
+   * @return the response.
+   */
+  HttpResponse<String> post(String scene) throws Exception {
+    return this.client.send(
+        HttpRequest.newBuilder(uri("/render"))
+            .POST(HttpRequest.BodyPublishers.ofString(scene))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+  } // post(String)
+
+  // +--------+------------------------------------------------------------
+  // | Scenes |
+  // +--------+
+
+  /**
+   * Do descriptions build the blocks they describe?
+   */
+  @Test
+  public void testParseScenes() throws Exception {
+    assertTrue(new Boxed(new Line("Hello")).eqv(
+        SceneParser.parse("(boxed (line \"Hello\"))")));
+    assertTrue(new HComp(VAlignment.CENTER,
+        new AsciiBlock[] {new Line("a"), new Rect('*', 3, 2)}).eqv(
+        SceneParser.parse("(hcomp center (line \"a\") (rect * 3 2))")));
+    assertTrue(new VComp(HAlignment.RIGHT,
+        new AsciiBlock[] {new Surrounded(new Line("x"), '.'), new Grid(new Line("ab"), 2, 3)})
+        .eqv(SceneParser.parse(
+            "  (vcomp RIGHT\n (surrounded . (line \"x\"))\t(grid (line \"ab\") 2 3))  ")));
+    assertTrue(new Padded(new Line("q\"\\"), '-', HAlignment.LEFT, VAlignment.BOTTOM, 5, 2)
+        .eqv(SceneParser.parse("(padded \"-\" left bottom 5 2 (line \"q\\\"\\\\\"))")));
+    assertEquals(TestPrinting.printed(Art80x24.pumpkin()),
+        TestPrinting.printed(SceneParser.parse("(pumpkin)")));
+  } // testParseScenes()
+
+  /**
+   * Are bad descriptions rejected?
+   */
+  @Test
+  public void testParseErrors() throws Exception {
+    for (String bad : new String[] {"", "line \"x\"", "(line \"x\"", "(line \"x)",
+        "(frob)", "(rect * wide 2)", "(rect ** 3 2)", "(rect * 0 2)",
+        "(hcomp sideways (line \"x\"))", "(line \"x\") (line \"y\")"}) {
+      assertThrows(IllegalArgumentException.class, () -> SceneParser.parse(bad), bad);
+    } // for [bad]
+  } // testParseErrors()
+
+  /**
+   * Are scenes that nest too deeply, use numbers that are too big, or
+   * would be too large to build rejected before we build them?
+   */
+  @Test
+  public void testParseLimits() throws Exception {
+    String deep = "(boxed ".repeat(SceneParser.MAX_DEPTH) + "(empty)"
+        + ")".repeat(SceneParser.MAX_DEPTH);
+    assertThrows(IllegalArgumentException.class, () -> SceneParser.parse(deep));
+    String notDeep = "(boxed ".repeat(SceneParser.MAX_DEPTH - 1) + "(empty)"
+        + ")".repeat(SceneParser.MAX_DEPTH - 1);
+    assertEquals(2 * SceneParser.MAX_DEPTH - 2, SceneParser.parse(notDeep).width());
+    for (String bad : new String[] {"(rect * 70000 1)", "(rect * -3 2)",
+        "(padded . left top -1 2 (empty))", "(grid (line \"x\") 2 99999999999)",
+        "(stamp * 0 4 (0 1) (0 1) (rect . 2 2))", "(stamp * 65 4 (0 1) (0 1) (rect . 2 2))",
+        "(stamp * 1 5000 (0 1) (0 1) (rect . 2 2))", "(stamp * 1 -1 (0 1) (0 1) (rect . 2 2))",
+        "(stamp * 1 4 (0 1 2) (0 1) (rect . 2 2))", "(stamp * 3 4 (0 1 2) (0 1 2) (rect . 2 2))",
+        "(stamp * 2 4 (0 1 2 3) (0 1 2 3) (rect . 2 2))", "(stamp * 1 4 () () (rect . 2 2))",
+        "(stamp * 1 4 (0) (0) (rect . 2 2))"}) {
+      IllegalArgumentException e =
+          assertThrows(IllegalArgumentException.class, () -> SceneParser.parse(bad), bad);
+      assertFalse(e instanceof SceneParser.TooLargeException, bad);
+    } // for [bad]
+    // Widths that would overflow an int.
+    String wide = "(grid (grid (grid (rect * 2000 1) 2000 1) 2000 1) 1 1)";
+    assertThrows(SceneParser.TooLargeException.class, () -> SceneParser.parse(wide));
+    assertThrows(SceneParser.TooLargeException.class,
+        () -> SceneParser.parse("(vcomp left (grid (line \"x\") 1 65536)"
+            + " (grid (line \"x\") 1 65536))", 1L << 16));
+    assertEquals(2000, SceneParser.parse("(grid (rect * 2000 1) 1 2000)", 1L << 23).height());
+    // Curves far off the block would take many steps to draw.
+    StringBuilder xs = new StringBuilder();
+    StringBuilder ys = new StringBuilder();
+    for (int i = 0; i <= 200; i++) {
+      xs.append((i % 2 == 0) ? " -65536" : " 65536");
+      ys.append((i % 2 == 0) ? " 65536" : " -65536");
+    } // for [i]
+    assertThrows(SceneParser.TooLargeException.class,
+        () -> SceneParser.parse("(stamp * 1 1000 (" + xs + ") (" + ys + ") (rect . 8 8))",
+            RenderServer.MAX_CELLS));
+    assertThrows(SceneParser.TooLargeException.class,
+        () -> SceneParser.parse("(stamp * 3 0 (0 65536 -65536 0) (0 65536 65536 0)"
+            + " (rect . 8 8))", RenderServer.MAX_CELLS));
+    assertTrue(BezierCurveStamp.cost(3, 0, new int[] {0, 4, 8, 12},
+        new int[] {0, 9, 9, 0}) < BezierCurveStamp.cost(3, 0,
+        new int[] {0, 40, 80, 120}, new int[] {0, 90, 90, 0}));
+  } // testParseLimits()
+
+  // +--------+------------------------------------------------------------
+  // | Server |
+  // +--------+
+
+  /**
+   * Do we get back the same text as printing the block ourselves,
+   * whether we GET or POST, streamed in chunks?
+   */
+  @Test
+  public void testRender() throws Exception {
+    String scene = "(grid (boxed (hcomp top (line \"Hi\") (rect # 2 3))) 4 3)";
+    String expected = TestPrinting.printed(SceneParser.parse(scene));
+    HttpResponse<String> response = get(scene);
+    assertEquals(200, response.statusCode());
+    assertEquals(expected, response.body());
+    assertEquals("chunked",
+        response.headers().firstValue("Transfer-Encoding").orElse(""));
+    response = post(scene);
+    assertEquals(200, response.statusCode());
+    assertEquals(expected, response.body());
+    response = post("(pumpkin)");
+    assertEquals(TestPrinting.printed(Art80x24.pumpkin()), response.body());
+  } // testRender()
+
+  /**
+   * Do bad requests get the right status?
+   */
+  @Test
+  public void testRenderErrors() throws Exception {
+    assertEquals(400, get("(frob)").statusCode());
+    assertEquals(400, this.client.send(HttpRequest.newBuilder(uri("/render")).build(),
+        HttpResponse.BodyHandlers.ofString()).statusCode());
+    assertEquals(405, this.client.send(HttpRequest.newBuilder(uri("/render"))
+        .PUT(HttpRequest.BodyPublishers.ofString("(empty)")).build(),
+        HttpResponse.BodyHandlers.ofString()).statusCode());
+    assertEquals(413, post("(empty)" + " ".repeat(RenderServer.MAX_SCENE)).statusCode());
+    assertEquals(413, get("(grid (rect * 1000 1000) 10 10)").statusCode());
+    assertEquals(5, this.server.metrics().errors());
+  } // testRenderErrors()
+
+  /**
+   * Are scenes that are too large or too deep turned away with the
+   * right status, without disturbing later requests?
+   */
+  @Test
+  public void testRenderLimits() throws Exception {
+    assertEquals(413,
+        get("(grid (grid (grid (rect * 2000 1) 2000 1) 2000 1) 1 1)").statusCode());
+    assertEquals(413, get("(grid (grid (rect * 1000 1000) 1000 1000) 1000 1000)")
+        .statusCode());
+    String deep = "(boxed ".repeat(5000) + "(empty)" + ")".repeat(5000);
+    assertEquals(400, post(deep).statusCode());
+    assertEquals(400, get("(stamp * 3 100000000 (0 1 2 3) (0 1 2 3) (rect . 4 4))")
+        .statusCode());
+    assertEquals(413, get("(stamp * 1 0 (-65536 65536) (65536 -65536) (rect . 4 4))")
+        .statusCode());
+    assertEquals(400, get("(stamp * 3 4 (0 1 2) (0 1 2) (rect . 4 4))").statusCode());
+    HttpResponse<String> response = get("(boxed (line \"still here\"))");
+    assertEquals(200, response.statusCode());
+    assertEquals(TestPrinting.printed(new Boxed(new Line("still here"))), response.body());
+    assertEquals(6, this.server.metrics().errors());
+  } // testRenderLimits()
+
+  /**
+   * If building or rendering a scene fails anyway, does the client
+   * hear about it, with an error status if the scene has not started
+   * to arrive and a dropped connection if it has?
+   */
+  @Test
+  public void testRenderFailures() throws Exception {
+    // Only asked for its height once the response has begun.
+    AsciiBlock late = new Line("row") {
+      @Override
+      public int height() {
+        throw new IllegalStateException("broken");
+      } // height()
+    };
+    RenderServer failing = new RenderServer(0) {
+      @Override
+      protected AsciiBlock scene(String description) {
+        switch (description) {
+          case "broken":
+            throw new IllegalStateException("broken");
+          case "late":
+            return late;
+          default:
+            return super.scene(description);
+        } // switch
+      } // scene(String)
+    };
+    RenderServer original = this.server;
+    this.server = failing;
+    failing.start();
+    try {
+      HttpResponse<String> response = post("broken");
+      assertEquals(500, response.statusCode());
+      assertTrue(response.body().contains("broken"), response.body());
+      assertThrows(IOException.class, () -> post("late"));
+      assertEquals(200, post("(line \"fine\")").statusCode());
+      assertEquals(2, failing.metrics().errors());
+    } finally {
+      failing.stop();
+      this.server = original;
+    } // try/finally
+  } // testRenderFailures()
+
+  /**
+   * Can the server handle many requests at once, and does it count
+   * them?
+   */
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    String scene = "(grid (boxed (line \"Hello\")) 20 20)";
+    String expected = TestPrinting.printed(SceneParser.parse(scene));
+    List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+    for (int r = 0; r < 32; r++) {
+      responses.add(this.client.sendAsync(
+          HttpRequest.newBuilder(uri("/render")).POST(
+              HttpRequest.BodyPublishers.ofString(scene)).build(),
+          HttpResponse.BodyHandlers.ofString()));
+    } // for [r]
+    for (CompletableFuture<HttpResponse<String>> response : responses) {
+      assertEquals(expected, response.get().body());
+    } // for [response]
+    assertEquals(32, this.server.metrics().requests());
+    assertEquals(0, this.server.metrics().errors());
+    assertEquals(32L * expected.length(), this.server.metrics().chars());
+    assertTrue(this.server.metrics().latencyNanos(50) > 0);
+    assertTrue(this.server.metrics().latencyNanos(99)
+        <= this.server.metrics().latencyNanos(100));
+    String metrics = this.client.send(HttpRequest.newBuilder(uri("/metrics")).build(),
+        HttpResponse.BodyHandlers.ofString()).body();
+    assertTrue(metrics.contains("requests 32"), metrics);
+    assertTrue(metrics.contains("virtual_threads " + this.server.usesVirtualThreads()),
+        metrics);
+  } // testConcurrentRequests()
+} // class TestServer